@@ -0,0 +1,144 @@
+package com.example.eccomerceapp.data.local;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.eccomerceapp.model.CartItem;
+import com.example.eccomerceapp.model.Category;
+import com.example.eccomerceapp.model.Product;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * getCartItems() hydrates each cart row from one JOIN; the cart and product columns
+ * must land on the right fields even though both tables have an id, and a large cart
+ * still costs a single query.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CartItemsQueryTest {
+
+    private final AtomicInteger cursorsOpened = new AtomicInteger();
+    private AppDatabaseHelper dbHelper;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        SQLiteDatabase.CursorFactory countingFactory = (db, driver, editTable, query) -> {
+            cursorsOpened.incrementAndGet();
+            return new SQLiteCursor(driver, editTable, query);
+        };
+        dbHelper = new AppDatabaseHelper(context, null, countingFactory);
+        dbHelper.applyCatalogChanges(
+                Collections.singletonList(new Category(7, "Shoes", "")),
+                null,
+                Arrays.asList(
+                        new Product(40, "Court Sneaker", "Leather upper", 120, 10, "court.png", 7, null),
+                        new Product(41, "Trail Boot", "Waterproof", 200, 0, "boot.png", 7, null)),
+                Collections.emptyList(),
+                true);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+    }
+
+    @Test
+    public void rowsAreHydratedWithTheirProductNewestFirst() {
+        long first = dbHelper.addToCart(40, 1, "42", "White", 110, 10);
+        long second = dbHelper.addToCart(41, 2, "44", "", 200, 0);
+        long third = dbHelper.addToCart(40, 3, "43", "Black", 120, 10);
+
+        List<CartItem> items = dbHelper.getCartItems();
+
+        assertEquals(3, items.size());
+        assertEquals(third, items.get(0).getId());
+        assertEquals(second, items.get(1).getId());
+        assertEquals(first, items.get(2).getId());
+
+        CartItem boots = items.get(1);
+        assertEquals(41, boots.getProduct().getId());
+        assertEquals("Trail Boot", boots.getProduct().getName());
+        assertEquals("Waterproof", boots.getProduct().getDescription());
+        assertEquals(7, boots.getProduct().getCategoryId());
+        assertEquals(2, boots.getQuantity());
+        assertEquals("44", boots.getSelectedSize());
+
+        // The row keeps its own price snapshot next to the current catalog price
+        CartItem oldest = items.get(2);
+        assertEquals(40, oldest.getProduct().getId());
+        assertEquals(120, oldest.getProduct().getPrice(), 0.001);
+        assertEquals(110, oldest.getUnitPrice(), 0.001);
+        assertEquals(10, oldest.getDiscountPercent(), 0.001);
+        assertEquals("White", oldest.getSelectedColor());
+    }
+
+    @Test
+    public void thousandRowCartLoadsWithOneQuery() {
+        // 1,000 rows over 100 products, ten sizes each, so every row is its own variant
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            products.add(new Product(1000 + i, "Product " + i, "Description " + i, 10 + i, 0, "p.png", 7, null));
+        }
+        dbHelper.applyCatalogChanges(Collections.singletonList(new Category(7, "Shoes", "")),
+                null, products, Collections.emptyList(), true);
+        Map<Long, Long> productByCartId = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            long productId = 1000 + i % 100;
+            long cartId = dbHelper.addToCart(productId, 1 + i % 3, String.valueOf(i / 100), "", 10, 0);
+            productByCartId.put(cartId, productId);
+        }
+        assertEquals(1000, productByCartId.size());
+
+        cursorsOpened.set(0);
+        List<CartItem> items = dbHelper.getCartItems();
+
+        // No per-row product lookup: the whole cart comes from the one JOIN cursor
+        assertEquals(1, cursorsOpened.get());
+        assertEquals(1000, items.size());
+        long previousId = Long.MAX_VALUE;
+        for (CartItem item : items) {
+            assertTrue(item.getId() < previousId);
+            previousId = item.getId();
+            long productId = productByCartId.get(item.getId());
+            assertEquals(productId, item.getProduct().getId());
+            assertEquals("Product " + (productId - 1000), item.getProduct().getName());
+            assertEquals(10 + (productId - 1000), item.getProduct().getPrice(), 0.001);
+        }
+    }
+
+    @Test
+    public void emptyCartHasNoItems() {
+        assertTrue(dbHelper.getCartItems().isEmpty());
+        assertEquals(0, dbHelper.getCartItemCount());
+    }
+
+    @Test
+    public void addingTheSameVariantMergesIntoOneRow() {
+        long cartId = dbHelper.addToCart(41, 1, "44", null, 200, 0);
+        assertEquals(cartId, dbHelper.addToCart(41, 2, "44", null, 190, 5));
+
+        List<CartItem> items = dbHelper.getCartItems();
+        assertEquals(1, items.size());
+        assertEquals(3, items.get(0).getQuantity());
+        assertEquals(190, items.get(0).getUnitPrice(), 0.001);
+        assertEquals(1, dbHelper.getCartItemCount());
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.eccomerceapp.data.local;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.eccomerceapp.model.Category;
+import com.example.eccomerceapp.model.Product;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Times product grid reads while another thread keeps writing cart quantities, once
+ * through separate helpers on a rollback journal (the old per-repository setup) and
+ * once through the shared WAL helper. Latencies are logged under {@value #TAG}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ConcurrentReadLatencyTest {
+
+    private static final String TAG = "ReadLatency";
+    private static final String LEGACY_DATABASE = "read-latency-legacy.db";
+    private static final String SHARED_DATABASE = "read-latency-shared.db";
+    private static final int PRODUCTS = 500;
+    private static final int CART_ROWS = 200;
+    private static final int READS = 200;
+
+    private Context context;
+    private final List<AppDatabaseHelper> helpers = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(LEGACY_DATABASE);
+        context.deleteDatabase(SHARED_DATABASE);
+    }
+
+    @After
+    public void tearDown() {
+        for (AppDatabaseHelper helper : helpers) {
+            helper.close();
+        }
+        context.deleteDatabase(LEGACY_DATABASE);
+        context.deleteDatabase(SHARED_DATABASE);
+    }
+
+    @Test
+    public void sharedWalHelperReadsFasterUnderCartWrites() throws Exception {
+        // Before: each repository opened its own helper and the file used a rollback journal
+        AppDatabaseHelper legacyWriter = open(LEGACY_DATABASE, false);
+        AppDatabaseHelper legacyReader = open(LEGACY_DATABASE, false);
+        long[] legacy = readLatenciesUnderWrites(legacyWriter, legacyReader);
+
+        // After: one helper in WAL mode serves both
+        AppDatabaseHelper shared = open(SHARED_DATABASE, true);
+        long[] wal = readLatenciesUnderWrites(shared, shared);
+
+        Log.i(TAG, "legacy: " + summary(legacy));
+        Log.i(TAG, "shared WAL: " + summary(wal));
+        assertTrue("WAL p95 " + percentileMs(wal, 95) + " ms vs legacy " + percentileMs(legacy, 95) + " ms",
+                percentile(wal, 95) <= percentile(legacy, 95));
+    }
+
+    private AppDatabaseHelper open(String name, boolean wal) {
+        AppDatabaseHelper helper = new AppDatabaseHelper(context, name);
+        helper.setWriteAheadLoggingEnabled(wal);
+        helpers.add(helper);
+        return helper;
+    }
+
+    private long[] readLatenciesUnderWrites(AppDatabaseHelper writer, AppDatabaseHelper reader) throws Exception {
+        List<Long> cartIds = seed(writer);
+        AtomicBoolean stop = new AtomicBoolean(false);
+        Thread writes = new Thread(() -> {
+            Random random = new Random(7);
+            while (!stop.get()) {
+                Map<Long, Integer> quantities = new HashMap<>();
+                for (long cartId : cartIds) {
+                    quantities.put(cartId, 1 + random.nextInt(9));
+                }
+                writer.updateCartQuantities(quantities);
+            }
+        }, "cart-writes");
+        writes.start();
+
+        long[] latencies = new long[READS];
+        try {
+            for (int i = 0; i < READS; i++) {
+                long start = System.nanoTime();
+                List<Product> products = reader.getProducts(null);
+                latencies[i] = System.nanoTime() - start;
+                assertEquals(PRODUCTS, products.size());
+            }
+        } finally {
+            stop.set(true);
+            writes.join();
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private List<Long> seed(AppDatabaseHelper helper) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(new Product(i + 1, "Product " + i, "Description " + i, 10 + i, 0, "p.png", 7, null));
+        }
+        helper.applyCatalogChanges(Collections.singletonList(new Category(7, "Shoes", "")),
+                null, products, Collections.emptyList(), true);
+        List<Long> cartIds = new ArrayList<>();
+        for (int i = 0; i < CART_ROWS; i++) {
+            cartIds.add(helper.addToCart(i + 1, 1, "M", "", 10 + i, 0));
+        }
+        return cartIds;
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+
+    private static double percentileMs(long[] sorted, int percent) {
+        return percentile(sorted, percent) / 1_000_000.0;
+    }
+
+    private static String summary(long[] sorted) {
+        return "p50=" + percentileMs(sorted, 50) + " ms, p95=" + percentileMs(sorted, 95) +
+                " ms, max=" + sorted[sorted.length - 1] / 1_000_000.0 + " ms";
+    }
+}
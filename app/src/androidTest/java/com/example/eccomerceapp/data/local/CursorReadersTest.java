@@ -0,0 +1,75 @@
+package com.example.eccomerceapp.data.local;
+
+import android.database.MatrixCursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.eccomerceapp.model.Order;
+import com.example.eccomerceapp.model.Product;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/** The readers resolve columns by name once and then decode every row from those indexes. */
+@RunWith(AndroidJUnit4.class)
+public class CursorReadersTest {
+
+    @Test
+    public void productReaderFollowsTheCursorsColumnOrder() {
+        MatrixCursor cursor = new MatrixCursor(new String[]{
+                "imageUrl", "categoryId", "price", "name", "discountPercent", "id", "description"});
+        cursor.addRow(new Object[]{"a.png", 3L, 99.5, "Lamp", 15.0, 12L, "Desk lamp"});
+        cursor.addRow(new Object[]{"b.png", 4L, 10.0, "Mug", null, 13L, "Ceramic"});
+
+        CursorReaders.ProductReader reader = new CursorReaders.ProductReader(cursor);
+        assertTrue(cursor.moveToNext());
+        Product lamp = reader.read(cursor);
+        assertTrue(cursor.moveToNext());
+        Product mug = reader.read(cursor);
+
+        assertEquals(12, lamp.getId());
+        assertEquals("Lamp", lamp.getName());
+        assertEquals("Desk lamp", lamp.getDescription());
+        assertEquals(99.5, lamp.getPrice(), 0.001);
+        assertEquals(15.0, lamp.getDiscountPercent(), 0.001);
+        assertEquals("a.png", lamp.getImageUrl());
+        assertEquals(3, lamp.getCategoryId());
+        assertEquals(13, mug.getId());
+        assertEquals(0.0, mug.getDiscountPercent(), 0.001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void productReaderRequiresDiscountColumn() {
+        // Every schema since version 6 has discountPercent, so a cursor without it is a bug
+        MatrixCursor cursor = new MatrixCursor(new String[]{
+                "id", "name", "description", "price", "imageUrl", "categoryId"});
+        new CursorReaders.ProductReader(cursor);
+    }
+
+    @Test
+    public void orderReaderMapsEveryColumn() {
+        MatrixCursor cursor = new MatrixCursor(new String[]{
+                "createdAt", "status", "total", "city", "addressLine", "phone", "customerName", "id"});
+        cursor.addRow(new Object[]{1700000000000L, "Completed", 250.75, "Lahore", "1 Mall Rd", "0300", "Ayesha", 9L});
+
+        CursorReaders.OrderReader reader = new CursorReaders.OrderReader(cursor);
+        assertTrue(cursor.moveToNext());
+        Order order = reader.read(cursor);
+
+        assertEquals(9, order.getId());
+        assertEquals("Ayesha", order.getCustomerName());
+        assertEquals("0300", order.getPhone());
+        assertEquals("1 Mall Rd", order.getAddressLine());
+        assertEquals("Lahore", order.getCity());
+        assertEquals(250.75, order.getTotalAmount(), 0.001);
+        assertEquals("Completed", order.getStatus());
+        assertEquals(1700000000000L, order.getCreatedAt());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingRequiredColumnFailsWhenTheReaderIsCreated() {
+        new CursorReaders.OrderReader(new MatrixCursor(new String[]{"id", "status"}));
+    }
+}
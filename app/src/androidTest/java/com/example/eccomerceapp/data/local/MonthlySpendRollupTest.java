@@ -0,0 +1,97 @@
+package com.example.eccomerceapp.data.local;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.eccomerceapp.model.MonthlySpend;
+import com.example.eccomerceapp.model.Order;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * The trigger-maintained monthly rollup must always match a full scan of orders,
+ * through inserts, status and total changes, moves between months and deletes.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MonthlySpendRollupTest {
+
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+    // 2025-01-01T00:00:00Z
+    private static final long START_MS = 1735689600000L;
+
+    private AppDatabaseHelper dbHelper;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        dbHelper = new AppDatabaseHelper(context, null);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+    }
+
+    @Test
+    public void rollupMatchesScanAfterMixedWrites() {
+        Random random = new Random(42);
+        for (int i = 0; i < 120; i++) {
+            dbHelper.insertOrder("Customer", "0300", "Street", "City",
+                    10 + random.nextInt(500), random.nextBoolean() ? "Processing" : "Completed",
+                    START_MS + random.nextInt(400) * DAY_MS + random.nextInt((int) DAY_MS));
+        }
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.execSQL("UPDATE " + AppDatabaseHelper.TABLE_ORDERS + " SET status = 'Completed' WHERE id % 3 = 0");
+        db.execSQL("UPDATE " + AppDatabaseHelper.TABLE_ORDERS + " SET total = total + 5 WHERE id % 4 = 0");
+        db.execSQL("UPDATE " + AppDatabaseHelper.TABLE_ORDERS + " SET createdAt = createdAt + 40 * " + DAY_MS +
+                " WHERE id % 5 = 0");
+        db.execSQL("DELETE FROM " + AppDatabaseHelper.TABLE_ORDERS + " WHERE id % 7 = 0");
+
+        assertRollupMatchesScan();
+    }
+
+    @Test
+    public void monthsAreBucketedInUtc() {
+        // 2025-01-31T23:30:00Z is already February east of UTC
+        dbHelper.insertOrder("Customer", "0300", "Street", "City", 100, "Processing", 1738366200000L);
+
+        List<MonthlySpend> months = dbHelper.getMonthlySpend(12);
+        assertEquals(1, months.size());
+        assertEquals("2025-01", months.get(0).getMonth());
+    }
+
+    private void assertRollupMatchesScan() {
+        SimpleDateFormat monthFormat = new SimpleDateFormat("yyyy-MM", Locale.US);
+        monthFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        Map<String, Integer> expectedCounts = new TreeMap<>();
+        Map<String, Double> expectedTotals = new TreeMap<>();
+        for (Order order : dbHelper.getOrders()) {
+            String month = monthFormat.format(order.getCreatedAt());
+            expectedCounts.merge(month, 1, Integer::sum);
+            expectedTotals.merge(month, order.getTotalAmount(), Double::sum);
+        }
+
+        List<MonthlySpend> months = dbHelper.getMonthlySpend(Integer.MAX_VALUE);
+        assertEquals(expectedCounts.size(), months.size());
+        for (MonthlySpend month : months) {
+            assertEquals(month.getMonth(), (int) expectedCounts.get(month.getMonth()), month.getOrderCount());
+            assertEquals(month.getMonth(), expectedTotals.get(month.getMonth()), month.getTotal(), 0.001);
+        }
+    }
+}
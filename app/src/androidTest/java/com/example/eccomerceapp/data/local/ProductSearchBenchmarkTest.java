@@ -0,0 +1,138 @@
+package com.example.eccomerceapp.data.local;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.eccomerceapp.model.Product;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Times the old {@code name LIKE '%term%'} scan against the FTS search on catalogs of
+ * 10k, 100k and 500k seeded products. Medians are logged under {@value #TAG}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ProductSearchBenchmarkTest {
+
+    private static final String TAG = "SearchBenchmark";
+    private static final String TEST_DATABASE = "search-benchmark.db";
+    private static final int[] CATALOG_SIZES = {10_000, 100_000, 500_000};
+    private static final int WORDS = 2_000;
+    private static final int RUNS = 5;
+
+    private Context context;
+    private AppDatabaseHelper dbHelper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DATABASE);
+        dbHelper = new AppDatabaseHelper(context, TEST_DATABASE);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(TEST_DATABASE);
+    }
+
+    @Test
+    public void ftsBeatsLikeOnLargeCatalogs() {
+        // A word used by one product in WORDS, so both paths return a small result
+        String needle = word(1_234);
+        int seeded = 0;
+        long likeAt100k = 0;
+        long ftsAt100k = 0;
+        for (int size : CATALOG_SIZES) {
+            seed(seeded, size);
+            seeded = size;
+
+            List<Product> likeResults = likeSearch(needle);
+            List<Product> ftsResults = dbHelper.searchProducts(needle);
+            assertEquals(size / WORDS, likeResults.size());
+            assertEquals(size / WORDS, ftsResults.size());
+
+            long like = median(() -> likeSearch(needle));
+            long fts = median(() -> dbHelper.searchProducts(needle));
+            Log.i(TAG, String.format(Locale.US, "%d products: LIKE %.2f ms, FTS %.2f ms",
+                    size, like / 1_000_000.0, fts / 1_000_000.0));
+            if (size == 100_000) {
+                likeAt100k = like;
+                ftsAt100k = fts;
+            }
+        }
+        assertTrue("FTS " + ftsAt100k + " ns vs LIKE " + likeAt100k + " ns at 100k", ftsAt100k < likeAt100k);
+    }
+
+    /** Adds products {@code from} (inclusive) to {@code to} (exclusive) in one transaction. */
+    private void seed(int from, int to) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        SQLiteStatement insert = db.compileStatement("INSERT INTO " + AppDatabaseHelper.TABLE_PRODUCT +
+                " (id, name, description, price, imageUrl) VALUES (?, ?, ?, ?, '')");
+        db.beginTransaction();
+        try {
+            for (int i = from; i < to; i++) {
+                insert.bindLong(1, i + 1);
+                insert.bindString(2, "Item " + i + " " + word(i % WORDS));
+                // Description words come from a disjoint range so the needle only hits names
+                insert.bindString(3, "Made with " + word(WORDS + i % WORDS) + " care");
+                insert.bindDouble(4, 10 + i % 500);
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insert.close();
+        }
+    }
+
+    /** The search this index replaced: a name-only substring scan. */
+    private List<Product> likeSearch(String keyword) {
+        List<Product> products = new ArrayList<>();
+        try (Cursor cursor = dbHelper.getReadableDatabase().query(AppDatabaseHelper.TABLE_PRODUCT, null,
+                "name LIKE ?", new String[]{"%" + keyword + "%"}, null, null, "name ASC")) {
+            CursorReaders.ProductReader reader = new CursorReaders.ProductReader(cursor);
+            while (cursor.moveToNext()) {
+                products.add(reader.read(cursor));
+            }
+        }
+        return products;
+    }
+
+    private static long median(Runnable search) {
+        long[] times = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            search.run();
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+
+    /** Four letters, distinct per index, so a prefix query on one word matches only that word. */
+    private static String word(int index) {
+        char[] letters = new char[4];
+        for (int i = 3; i >= 0; i--) {
+            letters[i] = (char) ('a' + index % 26);
+            index /= 26;
+        }
+        return new String(letters);
+    }
+}
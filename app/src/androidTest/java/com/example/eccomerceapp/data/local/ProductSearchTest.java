@@ -0,0 +1,115 @@
+package com.example.eccomerceapp.data.local;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.eccomerceapp.model.Category;
+import com.example.eccomerceapp.model.Product;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * FTS search against the name LIKE scan it replaced: every word-prefix hit of the old
+ * search is still found, description matches are added, and name matches rank first.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ProductSearchTest {
+
+    private AppDatabaseHelper dbHelper;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        dbHelper = new AppDatabaseHelper(context, null);
+        // A full snapshot replaces whatever the new database started with
+        dbHelper.applyCatalogChanges(
+                Collections.singletonList(new Category(1, "Outdoor", "")),
+                null,
+                Arrays.asList(
+                        product(1, "Running Shoes", "Lightweight trainers"),
+                        product(2, "Leather Jacket", "Great for running errands"),
+                        product(3, "Trail Runner Pro", "Grip on any surface"),
+                        product(4, "Coffee Mug", "Ceramic")),
+                Collections.emptyList(),
+                true);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+    }
+
+    @Test
+    public void findsEveryLikeMatchAndRanksNameMatchesFirst() {
+        List<String> likeNames = likeSearch("run");
+        List<String> ftsNames = names(dbHelper.searchProducts("run"));
+
+        assertTrue(ftsNames.containsAll(likeNames));
+        assertEquals(Arrays.asList("Running Shoes", "Trail Runner Pro", "Leather Jacket"), ftsNames);
+    }
+
+    @Test
+    public void termsMustAllMatch() {
+        assertEquals(Collections.singletonList("Running Shoes"), names(dbHelper.searchProducts("RUN shoes")));
+    }
+
+    @Test
+    public void matchesWordPrefixesOnly() {
+        // LIKE matched inside words; the index matches the start of a word
+        assertFalse(likeSearch("ing").isEmpty());
+        assertTrue(dbHelper.searchProducts("ing").isEmpty());
+    }
+
+    @Test
+    public void textWithoutTermsListsEveryProductByName() {
+        assertEquals(Arrays.asList("Coffee Mug", "Leather Jacket", "Running Shoes", "Trail Runner Pro"),
+                names(dbHelper.searchProducts(" !? ")));
+    }
+
+    @Test
+    public void renamedProductIsFoundUnderItsNewName() {
+        dbHelper.applyCatalogChanges(null, null,
+                Collections.singletonList(product(4, "Camping Mug", "Ceramic")),
+                Collections.emptyList(), false);
+
+        assertEquals(Collections.singletonList("Camping Mug"), names(dbHelper.searchProducts("camp")));
+        assertTrue(dbHelper.searchProducts("coffee").isEmpty());
+    }
+
+    // The search that FTS replaced
+    private List<String> likeSearch(String keyword) {
+        List<String> names = new ArrayList<>();
+        try (Cursor cursor = dbHelper.getReadableDatabase().query(AppDatabaseHelper.TABLE_PRODUCT,
+                new String[]{"name"}, "name LIKE ?", new String[]{"%" + keyword + "%"}, null, null, "name ASC")) {
+            while (cursor.moveToNext()) {
+                names.add(cursor.getString(0));
+            }
+        }
+        return names;
+    }
+
+    private static Product product(long id, String name, String description) {
+        return new Product(id, name, description, 100, 0, "", 1, null);
+    }
+
+    private static List<String> names(List<Product> products) {
+        List<String> names = new ArrayList<>();
+        for (Product product : products) {
+            names.add(product.getName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.eccomerceapp.data.local;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.eccomerceapp.model.Order;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks with EXPLAIN QUERY PLAN that the hot queries seek their index instead of
+ * scanning the table or sorting in a temporary B-tree.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QueryPlanTest {
+
+    private AppDatabaseHelper dbHelper;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        dbHelper = new AppDatabaseHelper(context, null);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+    }
+
+    @Test
+    public void ordersPageSeeksCreatedAtIndex() {
+        String plan = explain("SELECT * FROM " + AppDatabaseHelper.TABLE_ORDERS +
+                        " WHERE " + AppDatabaseHelper.ORDERS_PAGE_SELECTION +
+                        " ORDER BY " + AppDatabaseHelper.ORDERS_PAGE_ORDER + " LIMIT 20",
+                "1000", "1000", "5");
+        assertTrue(plan, plan.contains("SEARCH"));
+        assertTrue(plan, plan.contains("idx_orders_created"));
+        assertFalse(plan, plan.contains("TEMP B-TREE"));
+    }
+
+    @Test
+    public void categoryPageSeeksCategoryIndex() {
+        String plan = explain("SELECT * FROM " + AppDatabaseHelper.TABLE_PRODUCT +
+                        " WHERE " + AppDatabaseHelper.CATEGORY_PAGE_SELECTION +
+                        " ORDER BY " + AppDatabaseHelper.PRODUCTS_PAGE_ORDER + " LIMIT 20",
+                "3", "500");
+        assertTrue(plan, plan.contains("SEARCH"));
+        assertTrue(plan, plan.contains("idx_products_category"));
+        assertFalse(plan, plan.contains("TEMP B-TREE"));
+    }
+
+    @Test
+    public void favoritesAreReadInCreatedAtIndexOrder() {
+        String plan = explain(AppDatabaseHelper.FAVORITE_PRODUCTS_QUERY);
+        assertTrue(plan, plan.contains("idx_favorites_created"));
+        assertFalse(plan, plan.contains("TEMP B-TREE"));
+    }
+
+    @Test
+    public void cartVariantLookupSeeksUniqueVariantIndex() {
+        String plan = explain("SELECT id FROM " + AppDatabaseHelper.TABLE_CART +
+                " WHERE " + AppDatabaseHelper.CART_VARIANT_SELECTION, "8", "M", "Red");
+        assertTrue(plan, plan.contains("SEARCH"));
+        assertTrue(plan, plan.contains("idx_cart_items_variant"));
+    }
+
+    @Test
+    public void ordersPagesCoverTiedTimestampsWithoutGapsOrRepeats() {
+        // Three orders share each timestamp, so pages split inside a tie
+        for (int i = 0; i < 10; i++) {
+            dbHelper.insertOrder("Customer", "0300", "Street", "City", 10, "Processing", 1000L + i / 3);
+        }
+        List<Long> seen = new ArrayList<>();
+        long beforeCreatedAt = Long.MAX_VALUE;
+        long beforeId = Long.MAX_VALUE;
+        List<Order> page;
+        do {
+            page = dbHelper.getOrdersPage(beforeCreatedAt, beforeId, 4);
+            for (Order order : page) {
+                seen.add(order.getId());
+            }
+            if (!page.isEmpty()) {
+                Order last = page.get(page.size() - 1);
+                beforeCreatedAt = last.getCreatedAt();
+                beforeId = last.getId();
+            }
+        } while (page.size() == 4);
+
+        List<Long> expected = new ArrayList<>();
+        for (long id = 10; id >= 1; id--) {
+            expected.add(id);
+        }
+        assertEquals(expected, seen);
+    }
+
+    private String explain(String sql, String... args) {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN " + sql, args)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detail)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
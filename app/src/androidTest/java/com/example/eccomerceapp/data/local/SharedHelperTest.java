@@ -0,0 +1,74 @@
+package com.example.eccomerceapp.data.local;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/** One helper per process, in WAL mode, so reads are not blocked by an open write. */
+@RunWith(AndroidJUnit4.class)
+public class SharedHelperTest {
+
+    private static final String TEST_DATABASE = "shared-helper-test.db";
+
+    private Context context;
+    private AppDatabaseHelper dbHelper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DATABASE);
+        dbHelper = new AppDatabaseHelper(context, TEST_DATABASE);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(TEST_DATABASE);
+    }
+
+    @Test
+    public void getInstanceReturnsOneHelperForEveryContext() {
+        assertSame(AppDatabaseHelper.getInstance(context),
+                AppDatabaseHelper.getInstance(context.getApplicationContext()));
+    }
+
+    @Test
+    public void databaseRunsInWalMode() {
+        try (Cursor cursor = dbHelper.getReadableDatabase().rawQuery("PRAGMA journal_mode", null)) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals("wal", cursor.getString(0).toLowerCase());
+        }
+    }
+
+    @Test
+    public void readOnAnotherThreadIsNotBlockedByAnOpenWrite() throws Exception {
+        dbHelper.insertOrder("Customer", "0300", "Street", "City", 10, "Processing", 1000L);
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        db.beginTransaction();
+        try {
+            dbHelper.insertOrder("Customer", "0300", "Street", "City", 20, "Processing", 2000L);
+            Future<Integer> committedOrders = reader.submit(() -> dbHelper.getOrders().size());
+            // The reader sees the last commit without waiting for this transaction
+            assertEquals(1, (int) committedOrders.get(5, TimeUnit.SECONDS));
+        } finally {
+            db.endTransaction();
+            reader.shutdown();
+        }
+    }
+}
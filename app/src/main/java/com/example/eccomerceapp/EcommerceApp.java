@@ -0,0 +1,18 @@
+package com.example.eccomerceapp;
+
+import android.app.Application;
+
+import com.example.eccomerceapp.data.api.ApiClient;
+
+/**
+ * Runs before any activity, including one restored after process death that skips
+ * the splash, so the HTTP stack always gets its context and disk cache.
+ */
+public class EcommerceApp extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        ApiClient.init(this);
+    }
+}
@@ -1,64 +1,151 @@
 package com.example.eccomerceapp.data.api;
 
 import android.content.Context;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.example.eccomerceapp.BuildConfig;
+import okhttp3.Cache;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
-import com.example.eccomerceapp.data.local.SessionManager;
+import com.example.eccomerceapp.data.local.SessionStore;
 
+import java.io.File;
 import java.io.IOException;
 
+/**
+ * Owns the app's single HTTP stack. {@link #getHttpClient()} is the shared core whose
+ * connection pool and dispatcher back both the Retrofit API client and Glide, so
+ * images and API calls to the same host reuse the same connections.
+ */
 public class ApiClient {
-    private static ApiService instance;
-    private static Context appContext;
+    private static final String HTTP_CACHE_DIR = "http";
+    private static final long HTTP_CACHE_MAX_BYTES = 10L * 1024 * 1024;
+
+    private static volatile OkHttpClient httpClient;
+    private static volatile ApiService instance;
+    private static volatile Context appContext;
+    // Null when the build type disables HTTP logging
+    @Nullable
+    private static volatile HttpLoggingInterceptor loggingInterceptor;
 
     public static void init(Context context) {
         appContext = context.getApplicationContext();
     }
 
-    public static ApiService getInstance() {
-        if (instance == null) {
-            HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
-            logging.setLevel(HttpLoggingInterceptor.Level.BODY);
-
-            // Add authentication interceptor
-            Interceptor authInterceptor = new Interceptor() {
-                @Override
-                public okhttp3.Response intercept(Chain chain) throws IOException {
-                    Request original = chain.request();
-                    Request.Builder requestBuilder = original.newBuilder();
-
-                    // Add token if available
-                    if (appContext != null) {
-                        SessionManager sessionManager = new SessionManager(appContext);
-                        String token = sessionManager.getToken();
-                        if (token != null && !token.isEmpty()) {
-                            requestBuilder.header("Authorization", "Bearer " + token);
-                        }
+    /** Builds the network stack on a background thread so the first request does not pay for it. */
+    public static void warmUp(Context context) {
+        init(context);
+        Thread thread = new Thread(ApiClient::getInstance, "api-warmup");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * The shared core client, without the API-only interceptors. {@link #init} must
+     * have run first; the application class does that before any activity starts.
+     */
+    public static OkHttpClient getHttpClient() {
+        OkHttpClient client = httpClient;
+        if (client == null) {
+            synchronized (ApiClient.class) {
+                client = httpClient;
+                if (client == null) {
+                    Context context = appContext;
+                    if (context == null) {
+                        throw new IllegalStateException("ApiClient.init() must run before the HTTP client is used");
                     }
+                    client = buildHttpClient(new File(context.getCacheDir(), HTTP_CACHE_DIR));
+                    httpClient = client;
+                }
+            }
+        }
+        return client;
+    }
 
-                    Request request = requestBuilder.build();
-                    return chain.proceed(request);
+    @VisibleForTesting
+    static OkHttpClient buildHttpClient(File cacheDir) {
+        // Catalog responses carry ETag/Last-Modified, so a cached body is
+        // revalidated and an unchanged one comes back as a header-only 304
+        return new OkHttpClient.Builder()
+                .eventListenerFactory(NetworkTimingListener.FACTORY)
+                .cache(new Cache(cacheDir, HTTP_CACHE_MAX_BYTES))
+                .build();
+    }
+
+    public static ApiService getInstance() {
+        ApiService service = instance;
+        if (service == null) {
+            synchronized (ApiClient.class) {
+                service = instance;
+                if (service == null) {
+                    service = createApiService();
+                    instance = service;
                 }
-            };
+            }
+        }
+        return service;
+    }
 
-            OkHttpClient client = new OkHttpClient.Builder()
-                    .addInterceptor(logging)
-                    .addInterceptor(authInterceptor)
-                    .build();
+    /**
+     * Changes the HTTP log level at runtime. Has no effect in builds whose
+     * {@code HTTP_LOG_LEVEL} is NONE, which ship without a logging interceptor.
+     */
+    public static void setLogLevel(HttpLoggingInterceptor.Level level) {
+        getInstance();
+        HttpLoggingInterceptor logging = loggingInterceptor;
+        if (logging != null) {
+            logging.setLevel(level);
+        }
+    }
 
-            Retrofit retrofit = new Retrofit.Builder()
-                    .baseUrl(ApiService.BASE_URL)
-                    .client(client)
-                    .addConverterFactory(GsonConverterFactory.create())
-                    .build();
+    private static ApiService createApiService() {
+        // newBuilder() keeps the core's connection pool and dispatcher
+        OkHttpClient.Builder builder = getHttpClient().newBuilder();
 
-            instance = retrofit.create(ApiService.class);
+        HttpLoggingInterceptor.Level logLevel = HttpLoggingInterceptor.Level.valueOf(BuildConfig.HTTP_LOG_LEVEL);
+        if (logLevel != HttpLoggingInterceptor.Level.NONE) {
+            HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
+            logging.setLevel(logLevel);
+            builder.addInterceptor(logging);
+            loggingInterceptor = logging;
         }
-        return instance;
+
+        // Add authentication interceptor
+        Interceptor authInterceptor = new Interceptor() {
+            @Override
+            public okhttp3.Response intercept(Chain chain) throws IOException {
+                Request original = chain.request();
+                Request.Builder requestBuilder = original.newBuilder();
+
+                // Add token if available; the session snapshot is a plain field read
+                if (appContext != null) {
+                    String token = SessionStore.getInstance(appContext).getSession().getToken();
+                    if (token != null && !token.isEmpty()) {
+                        requestBuilder.header("Authorization", "Bearer " + token);
+                    }
+                }
+
+                Request request = requestBuilder.build();
+                return chain.proceed(request);
+            }
+        };
+
+        OkHttpClient client = builder
+                .addInterceptor(authInterceptor)
+                .build();
+
+        Retrofit retrofit = new Retrofit.Builder()
+                .baseUrl(ApiService.BASE_URL)
+                .client(client)
+                .addConverterFactory(GsonConverterFactory.create())
+                .build();
+
+        return retrofit.create(ApiService.class);
     }
 }
-
@@ -4,10 +4,13 @@ import com.example.eccomerceapp.data.api.model.ApiCategory;
 import com.example.eccomerceapp.data.api.model.ApiProduct;
 import com.example.eccomerceapp.model.Category;
 import com.example.eccomerceapp.model.Product;
+import com.example.eccomerceapp.model.ProductVariants;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ApiMapper {
     public static Category toCategory(ApiCategory apiCategory) {
@@ -52,49 +55,10 @@ public class ApiMapper {
             }
         }
 
-        // Convert sizes array to CSV string, handling any JSON string format
-        String sizesCsv = "";
-        if (apiProduct.sizes != null && !apiProduct.sizes.isEmpty()) {
-            List<String> cleanSizes = new ArrayList<>();
-            for (String size : apiProduct.sizes) {
-                if (size != null) {
-                    // Remove any JSON array brackets or quotes
-                    String cleanSize = size.trim()
-                        .replaceAll("^\\[\"", "")
-                        .replaceAll("\"\\]$", "")
-                        .replaceAll("^\"", "")
-                        .replaceAll("\"$", "")
-                        .replaceAll("^\\[", "")
-                        .replaceAll("\\]$", "");
-                    if (!cleanSize.isEmpty()) {
-                        cleanSizes.add(cleanSize);
-                    }
-                }
-            }
-            sizesCsv = String.join(",", cleanSizes);
-        }
-
-        // Convert colors array to CSV string, handling any JSON string format
-        String colorsCsv = "";
-        if (apiProduct.colors != null && !apiProduct.colors.isEmpty()) {
-            List<String> cleanColors = new ArrayList<>();
-            for (String color : apiProduct.colors) {
-                if (color != null) {
-                    // Remove any JSON array brackets or quotes
-                    String cleanColor = color.trim()
-                        .replaceAll("^\\[\"", "")
-                        .replaceAll("\"\\]$", "")
-                        .replaceAll("^\"", "")
-                        .replaceAll("\"$", "")
-                        .replaceAll("^\\[", "")
-                        .replaceAll("\\]$", "");
-                    if (!cleanColor.isEmpty()) {
-                        cleanColors.add(cleanColor);
-                    }
-                }
-            }
-            colorsCsv = String.join(",", cleanColors);
-        }
+        // The API may send values wrapped in JSON brackets or quotes; clean them once here
+        ProductVariants variants = ProductVariants.of(
+                ProductVariants.canonicalize(apiProduct.sizes),
+                ProductVariants.canonicalize(apiProduct.colors));
 
         double discountPercent = apiProduct.discountPercent != null ? apiProduct.discountPercent : 0.0;
         
@@ -106,8 +70,7 @@ public class ApiMapper {
                 discountPercent,
                 imageUrl,
                 apiProduct.categoryId != null ? apiProduct.categoryId : 0,
-                sizesCsv,
-                colorsCsv
+                variants
         );
     }
 
@@ -121,6 +84,24 @@ public class ApiMapper {
         return categories;
     }
 
+    /**
+     * The categories embedded in {@code apiProducts}, one per id, so products fetched
+     * outside a catalog sync can be stored together with the category they reference.
+     */
+    public static List<Category> toEmbeddedCategories(List<ApiProduct> apiProducts) {
+        Map<Long, Category> categoriesById = new LinkedHashMap<>();
+        if (apiProducts != null) {
+            for (ApiProduct apiProduct : apiProducts) {
+                ApiProduct.CategoryInfo info = apiProduct.category;
+                if (info == null || info.id == null || info.id <= 0 || categoriesById.containsKey(info.id)) {
+                    continue;
+                }
+                categoriesById.put(info.id, new Category(info.id, info.title != null ? info.title : "", ""));
+            }
+        }
+        return new ArrayList<>(categoriesById.values());
+    }
+
     public static List<Product> toProductList(List<ApiProduct> apiProducts) {
         List<Product> products = new ArrayList<>();
         if (apiProducts != null) {
@@ -30,6 +30,13 @@ public interface ApiService {
             @Query("featured") Boolean featured
     );
 
+    /** Batch lookup; {@code ids} is comma-separated and limited to 100 per request by the server. */
+    @GET("products")
+    Call<List<ApiProduct>> getProductsByIds(@Query("ids") String ids);
+
+    @GET("products/changes")
+    Call<com.example.eccomerceapp.data.api.model.ApiProductChanges> getProductChanges(@Query("since") String since);
+
     @GET("products/{id}")
     Call<ApiProduct> getProductById(@retrofit2.http.Path("id") long id);
 
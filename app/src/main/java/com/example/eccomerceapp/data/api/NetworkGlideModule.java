@@ -0,0 +1,39 @@
+package com.example.eccomerceapp.data.api;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.integration.okhttp3.OkHttpUrlLoader;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.module.AppGlideModule;
+
+import java.io.InputStream;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * Routes Glide's image downloads through {@link ApiClient#getHttpClient()} instead of
+ * its own HttpURLConnection stack, so product images share the API's connections.
+ */
+@GlideModule
+public final class NetworkGlideModule extends AppGlideModule {
+
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+        ApiClient.init(context);
+        // Same pool and dispatcher, but no HTTP cache: Glide keeps its own disk cache of images
+        OkHttpClient imageClient = ApiClient.getHttpClient().newBuilder()
+                .cache(null)
+                .build();
+        registry.replace(GlideUrl.class, InputStream.class, new OkHttpUrlLoader.Factory(imageClient));
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.eccomerceapp.data.api;
+
+import android.util.Log;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide registry of HTTP timing histograms, fed by {@link NetworkTimingListener}.
+ * Each endpoint and phase (dns, connect, tls, ttfb, body, call) gets a fixed-bucket
+ * histogram, so recording is a bucket increment and memory stays bounded.
+ */
+public final class NetworkMetrics {
+
+    private static final String TAG = "NetworkMetrics";
+
+    // Upper bounds of the buckets in milliseconds; the last bucket is open-ended
+    private static final long[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    private NetworkMetrics() {
+    }
+
+    static void record(String endpoint, String phase, long durationNanos) {
+        String key = endpoint + " " + phase;
+        Histogram histogram = histograms.get(key);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(key, ignored -> new Histogram());
+        }
+        histogram.record(durationNanos / 1_000_000);
+    }
+
+    /** A text table of every histogram, one line per endpoint and phase. */
+    public static String dump() {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            out.append(entry.getKey()).append(": ").append(entry.getValue().summary()).append('\n');
+        }
+        return out.toString();
+    }
+
+    public static void logDump() {
+        for (String line : dump().split("\n")) {
+            if (!line.isEmpty()) {
+                Log.i(TAG, line);
+            }
+        }
+    }
+
+    public static void reset() {
+        histograms.clear();
+    }
+
+    static final class Histogram {
+        private final long[] counts = new long[BUCKET_BOUNDS_MS.length + 1];
+        private long count;
+        private long sumMs;
+        private long maxMs;
+
+        synchronized void record(long durationMs) {
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MS.length && durationMs > BUCKET_BOUNDS_MS[bucket]) {
+                bucket++;
+            }
+            counts[bucket]++;
+            count++;
+            sumMs += durationMs;
+            maxMs = Math.max(maxMs, durationMs);
+        }
+
+        synchronized String summary() {
+            return String.format(Locale.US, "n=%d avg=%dms p50<=%s p90<=%s p99<=%s max=%dms",
+                    count, count == 0 ? 0 : sumMs / count,
+                    percentileBound(0.50), percentileBound(0.90), percentileBound(0.99), maxMs);
+        }
+
+        // Upper bound of the bucket holding the given percentile
+        private String percentileBound(double percentile) {
+            long target = (long) Math.ceil(count * percentile);
+            long seen = 0;
+            for (int bucket = 0; bucket < counts.length; bucket++) {
+                seen += counts[bucket];
+                if (seen >= target && seen > 0) {
+                    return bucket < BUCKET_BOUNDS_MS.length ? BUCKET_BOUNDS_MS[bucket] + "ms" : "inf";
+                }
+            }
+            return "-";
+        }
+    }
+}
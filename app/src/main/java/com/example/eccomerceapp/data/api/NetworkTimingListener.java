@@ -0,0 +1,146 @@
+package com.example.eccomerceapp.data.api;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.HttpUrl;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Times the phases of each HTTP call into {@link NetworkMetrics}. OkHttp creates one
+ * listener per call and calls it from one thread at a time, so the timestamps are
+ * plain fields. A pooled connection skips the dns, connect and tls phases entirely.
+ */
+final class NetworkTimingListener extends EventListener {
+
+    static final EventListener.Factory FACTORY = call -> new NetworkTimingListener(endpointOf(call.request()));
+
+    private final String endpoint;
+    private long callStart;
+    private long dnsStart;
+    private long connectStart;
+    private long secureConnectStart;
+    private long requestHeadersStart;
+    private long responseBodyStart;
+
+    private NetworkTimingListener(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * API calls are keyed by method and path with numeric ids folded together; other
+     * hosts (image CDNs) by host only, so the registry does not grow per URL.
+     */
+    static String endpointOf(Request request) {
+        HttpUrl url = request.url();
+        String path = url.encodedPath();
+        if (!path.startsWith("/api/")) {
+            return url.host();
+        }
+        StringBuilder key = new StringBuilder(request.method()).append(' ');
+        for (String segment : url.pathSegments()) {
+            key.append('/').append(isNumeric(segment) ? "{id}" : segment);
+        }
+        return key.toString();
+    }
+
+    private static boolean isNumeric(String segment) {
+        if (segment.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            if (!Character.isDigit(segment.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void recordSince(String phase, long start) {
+        if (start != 0) {
+            NetworkMetrics.record(endpoint, phase, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void callStart(@NonNull Call call) {
+        callStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(@NonNull Call call, @NonNull String domainName, @NonNull List<InetAddress> inetAddressList) {
+        recordSince("dns", dnsStart);
+    }
+
+    @Override
+    public void connectStart(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress, @NonNull Proxy proxy) {
+        connectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(@NonNull Call call) {
+        secureConnectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(@NonNull Call call, Handshake handshake) {
+        recordSince("tls", secureConnectStart);
+    }
+
+    @Override
+    public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                           @NonNull Proxy proxy, Protocol protocol) {
+        recordSince("connect", connectStart);
+    }
+
+    @Override
+    public void requestHeadersStart(@NonNull Call call) {
+        requestHeadersStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersStart(@NonNull Call call) {
+        // Time to first byte: request written until the response starts arriving
+        recordSince("ttfb", requestHeadersStart);
+    }
+
+    @Override
+    public void responseBodyStart(@NonNull Call call) {
+        responseBodyStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseBodyEnd(@NonNull Call call, long byteCount) {
+        recordSince("body", responseBodyStart);
+    }
+
+    @Override
+    public void callEnd(@NonNull Call call) {
+        recordSince("call", callStart);
+    }
+
+    @Override
+    public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+        recordSince("failed", callStart);
+    }
+
+    @Override
+    public void cacheHit(@NonNull Call call, @NonNull Response response) {
+        recordSince("cache_hit", callStart);
+    }
+}
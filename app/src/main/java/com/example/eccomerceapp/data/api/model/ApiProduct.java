@@ -43,6 +43,9 @@ public class ApiProduct {
     @SerializedName("featured")
     public Boolean featured;
 
+    @SerializedName("updatedAt")
+    public String updatedAt;
+
     public static class CategoryInfo {
         @SerializedName("id")
         public Long id;
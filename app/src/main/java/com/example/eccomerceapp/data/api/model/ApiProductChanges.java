@@ -0,0 +1,18 @@
+package com.example.eccomerceapp.data.api.model;
+
+import com.google.gson.annotations.SerializedName;
+import java.util.List;
+
+public class ApiProductChanges {
+    @SerializedName("products")
+    public List<ApiProduct> products;
+
+    @SerializedName("deletedIds")
+    public List<Long> deletedIds;
+
+    @SerializedName("syncedAt")
+    public String syncedAt;
+
+    @SerializedName("full")
+    public Boolean full;
+}
@@ -3,32 +3,179 @@ package com.example.eccomerceapp.data.local;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Build;
 
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
+import com.example.eccomerceapp.BuildConfig;
 import com.example.eccomerceapp.model.CartItem;
 import com.example.eccomerceapp.model.Category;
+import com.example.eccomerceapp.model.MonthlySpend;
 import com.example.eccomerceapp.model.Order;
+import com.example.eccomerceapp.model.OrderStats;
 import com.example.eccomerceapp.model.Product;
+import com.example.eccomerceapp.model.ProductVariants;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 public class AppDatabaseHelper extends SQLiteOpenHelper {
 
     public static final String DATABASE_NAME = "ecommerce.db";
-    private static final int DATABASE_VERSION = 3;
+    private static final int DATABASE_VERSION = 13;
 
     public static final String TABLE_CATEGORY = "categories";
     public static final String TABLE_PRODUCT = "products";
     public static final String TABLE_CART = "cart_items";
     public static final String TABLE_ORDERS = "orders";
     public static final String TABLE_FAVORITES = "favorites";
+    public static final String TABLE_PRODUCT_SEARCH = "products_fts";
+    public static final String TABLE_MONTHLY_SPEND = "order_monthly_spend";
+    public static final String TABLE_PRODUCT_VARIANTS = "product_variants";
 
-    public AppDatabaseHelper(@Nullable Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    private static final int VARIANT_KIND_SIZE = 0;
+    private static final int VARIANT_KIND_COLOR = 1;
+
+    // Copies the catalog price and discount onto cart rows whose snapshot is out of date
+    private static final String REPRICE_CART_SQL =
+            "UPDATE " + TABLE_CART + " SET " +
+                    "unitPrice = (SELECT p.price FROM " + TABLE_PRODUCT + " p WHERE p.id = " + TABLE_CART + ".productId), " +
+                    "discountPercent = (SELECT COALESCE(p.discountPercent, 0) FROM " + TABLE_PRODUCT + " p " +
+                    "WHERE p.id = " + TABLE_CART + ".productId) " +
+                    "WHERE EXISTS (SELECT 1 FROM " + TABLE_PRODUCT + " p WHERE p.id = " + TABLE_CART + ".productId " +
+                    "AND (p.price IS NOT " + TABLE_CART + ".unitPrice " +
+                    "OR COALESCE(p.discountPercent, 0) IS NOT " + TABLE_CART + ".discountPercent))";
+
+    // Keyset page predicate for orders older than (createdAt, id). The leading range on
+    // createdAt lets the planner seek idx_orders_created; an OR at the top level scans it
+    static final String ORDERS_PAGE_SELECTION = "createdAt <= ? AND (createdAt < ? OR id < ?)";
+    static final String ORDERS_PAGE_ORDER = "createdAt DESC, id DESC";
+
+    // Category product pages seek idx_products_category and read it in id order
+    static final String CATEGORY_PAGE_SELECTION = "categoryId = ? AND id < ?";
+    static final String PRODUCTS_PAGE_ORDER = "id DESC";
+
+    // Walks idx_favorites_created newest first, so the join needs no sort
+    static final String FAVORITE_PRODUCTS_QUERY = "SELECT p.* FROM " + TABLE_PRODUCT + " p " +
+            "INNER JOIN " + TABLE_FAVORITES + " f ON p.id = f.productId " +
+            "ORDER BY f.createdAt DESC";
+
+    // Matches idx_cart_items_variant, which keeps one cart row per variant
+    static final String CART_VARIANT_SELECTION = "productId = ? AND size = ? AND color = ?";
+
+    private static final long AUTO_VACUUM_INCREMENTAL = 2;
+
+    private static volatile AppDatabaseHelper instance;
+
+    // Hot single-row statements compiled once and reused for the lifetime of the helper
+    private final Map<String, SQLiteStatement> statementCache = new HashMap<>();
+    private final InvalidationTracker invalidationTracker = new InvalidationTracker();
+
+    /**
+     * Returns the process-wide helper. All repositories share one connection pool
+     * so readers never open a second handle on the same database file.
+     */
+    public static AppDatabaseHelper getInstance(@Nullable Context context) {
+        if (instance == null) {
+            synchronized (AppDatabaseHelper.class) {
+                if (instance == null) {
+                    Context appContext = context != null ? context.getApplicationContext() : null;
+                    instance = new AppDatabaseHelper(appContext);
+                }
+            }
+        }
+        return instance;
+    }
+
+    private AppDatabaseHelper(@Nullable Context context) {
+        this(context, DATABASE_NAME);
+    }
+
+    /** Opens {@code name}, or a private in-memory database when it is null; tests use the latter. */
+    @VisibleForTesting
+    AppDatabaseHelper(@Nullable Context context, @Nullable String name) {
+        this(context, name, null);
+    }
+
+    /** As above, with a cursor factory so tests can count the queries a read issues. */
+    @VisibleForTesting
+    AppDatabaseHelper(@Nullable Context context, @Nullable String name,
+                      @Nullable SQLiteDatabase.CursorFactory cursorFactory) {
+        super(context, name, cursorFactory, DATABASE_VERSION);
+        // WAL lets product reads proceed on pooled connections while cart writes are in flight
+        setWriteAheadLoggingEnabled(name != null);
+    }
+
+    @Override
+    public synchronized void close() {
+        synchronized (statementCache) {
+            for (SQLiteStatement statement : statementCache.values()) {
+                statement.close();
+            }
+            statementCache.clear();
+        }
+        super.close();
+    }
+
+    public InvalidationTracker getInvalidationTracker() {
+        return invalidationTracker;
+    }
+
+    @Override
+    public SQLiteDatabase getReadableDatabase() {
+        checkNotMainThread();
+        return super.getReadableDatabase();
+    }
+
+    @Override
+    public SQLiteDatabase getWritableDatabase() {
+        checkNotMainThread();
+        return super.getWritableDatabase();
+    }
+
+    // Debug builds fail fast so main-thread database access is caught during development
+    private static void checkNotMainThread() {
+        if (BuildConfig.DEBUG && DatabaseExecutor.isMainThread()) {
+            throw new IllegalStateException("Database accessed on the main thread; use the repository async methods");
+        }
+    }
+
+    /**
+     * Returns a cached statement; callers bind and execute it while holding its monitor.
+     * Executing takes the connection, so a statement must be used either always inside a
+     * transaction (connection first, then monitor) or never (monitor first); mixing the
+     * two orders can deadlock. A transaction that shares SQL with a plain write compiles
+     * its own statement instead.
+     */
+    private SQLiteStatement compiledStatement(String sql) {
+        checkNotMainThread();
+        synchronized (statementCache) {
+            SQLiteStatement statement = statementCache.get(sql);
+            if (statement == null) {
+                statement = getWritableDatabase().compileStatement(sql);
+                statementCache.put(sql, statement);
+            }
+            return statement;
+        }
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        // Cart rows and favorites cascade away with their product instead of being swept later
+        db.setForeignKeyConstraintsEnabled(true);
+        // Takes effect on a new database; existing ones are converted once by incrementalVacuum()
+        db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
     }
 
     @Override
@@ -47,6 +194,7 @@ public class AppDatabaseHelper extends SQLiteOpenHelper {
                         "name TEXT NOT NULL," +
                         "description TEXT," +
                         "price REAL NOT NULL," +
+                        "discountPercent REAL DEFAULT 0," +
                         "imageUrl TEXT," +
                         "categoryId INTEGER," +
                         "sizes TEXT," +
@@ -55,16 +203,7 @@ public class AppDatabaseHelper extends SQLiteOpenHelper {
                         ")"
         );
 
-        db.execSQL(
-                "CREATE TABLE " + TABLE_CART + " (" +
-                        "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                        "productId INTEGER NOT NULL," +
-                        "quantity INTEGER NOT NULL," +
-                        "size TEXT," +
-                        "color TEXT," +
-                        "FOREIGN KEY(productId) REFERENCES " + TABLE_PRODUCT + "(id)" +
-                        ")"
-        );
+        createCartTable(db, TABLE_CART);
 
         db.execSQL(
                 "CREATE TABLE " + TABLE_ORDERS + " (" +
@@ -79,15 +218,13 @@ public class AppDatabaseHelper extends SQLiteOpenHelper {
                         ")"
         );
 
-        db.execSQL(
-                "CREATE TABLE " + TABLE_FAVORITES + " (" +
-                        "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                        "productId INTEGER NOT NULL UNIQUE," +
-                        "createdAt INTEGER NOT NULL DEFAULT (strftime('%s','now'))" +
-                        ")"
-        );
+        createFavoritesTable(db, TABLE_FAVORITES);
 
-        insertInitialData(db);
+        createProductVariantsTable(db);
+        createProductSearchIndex(db);
+        createLookupIndexes(db);
+        createCartVariantIndex(db);
+        createMonthlySpendRollup(db);
     }
 
     @Override
@@ -102,71 +239,281 @@ public class AppDatabaseHelper extends SQLiteOpenHelper {
                             ")"
             );
         }
+        if (oldVersion < 4) {
+            // Full-text index over product name and description for version 4
+            createProductSearchIndex(db);
+            db.execSQL("INSERT INTO " + TABLE_PRODUCT_SEARCH + "(" + TABLE_PRODUCT_SEARCH + ") VALUES('rebuild')");
+        }
+        if (oldVersion < 5) {
+            // Secondary indexes for hot filter and sort columns for version 5
+            createLookupIndexes(db);
+        }
+        if (oldVersion < 6) {
+            // Products synced from the server carry their discount for version 6
+            db.execSQL("ALTER TABLE " + TABLE_PRODUCT + " ADD COLUMN discountPercent REAL DEFAULT 0");
+        }
+        if (oldVersion < 7) {
+            // Monthly spend rollup for version 7, seeded from the existing orders
+            createMonthlySpendRollup(db);
+            seedMonthlySpend(db);
+        }
+        if (oldVersion < 8) {
+            // Cart rows snapshot their price for version 8, seeded from the local catalog
+            db.execSQL("ALTER TABLE " + TABLE_CART + " ADD COLUMN unitPrice REAL NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE " + TABLE_CART + " ADD COLUMN discountPercent REAL NOT NULL DEFAULT 0");
+            db.execSQL(REPRICE_CART_SQL);
+        }
+        if (oldVersion < 9) {
+            // One cart row per (productId, size, color) for version 9: merge duplicates into the oldest row
+            db.execSQL("UPDATE " + TABLE_CART + " SET size = COALESCE(size, ''), color = COALESCE(color, '') " +
+                    "WHERE size IS NULL OR color IS NULL");
+            db.execSQL("UPDATE " + TABLE_CART + " SET quantity = (SELECT SUM(d.quantity) FROM " + TABLE_CART + " d " +
+                    "WHERE d.productId = " + TABLE_CART + ".productId AND d.size = " + TABLE_CART + ".size " +
+                    "AND d.color = " + TABLE_CART + ".color) " +
+                    "WHERE id IN (SELECT MIN(id) FROM " + TABLE_CART + " GROUP BY productId, size, color HAVING COUNT(*) > 1)");
+            db.execSQL("DELETE FROM " + TABLE_CART + " WHERE id NOT IN " +
+                    "(SELECT MIN(id) FROM " + TABLE_CART + " GROUP BY productId, size, color)");
+            db.execSQL("DROP INDEX IF EXISTS idx_cart_items_product");
+            createCartVariantIndex(db);
+        }
+        if (oldVersion < 10) {
+            // Rebuild cart_items and favorites with ON DELETE CASCADE for version 10. Rows that
+            // already point at a missing product would fail the new constraint, so they go first.
+            db.execSQL("DELETE FROM " + TABLE_CART + " WHERE productId NOT IN (SELECT id FROM " + TABLE_PRODUCT + ")");
+            db.execSQL("DELETE FROM " + TABLE_FAVORITES + " WHERE productId NOT IN (SELECT id FROM " + TABLE_PRODUCT + ")");
+
+            createCartTable(db, TABLE_CART + "_rebuild");
+            db.execSQL("INSERT INTO " + TABLE_CART + "_rebuild " +
+                    "(id, productId, quantity, size, color, unitPrice, discountPercent) " +
+                    "SELECT id, productId, quantity, size, color, unitPrice, discountPercent FROM " + TABLE_CART);
+            db.execSQL("DROP TABLE " + TABLE_CART);
+            db.execSQL("ALTER TABLE " + TABLE_CART + "_rebuild RENAME TO " + TABLE_CART);
+            createCartVariantIndex(db);
+
+            createFavoritesTable(db, TABLE_FAVORITES + "_rebuild");
+            db.execSQL("INSERT INTO " + TABLE_FAVORITES + "_rebuild (id, productId, createdAt) " +
+                    "SELECT id, productId, createdAt FROM " + TABLE_FAVORITES);
+            db.execSQL("DROP TABLE " + TABLE_FAVORITES);
+            db.execSQL("ALTER TABLE " + TABLE_FAVORITES + "_rebuild RENAME TO " + TABLE_FAVORITES);
+            db.execSQL("CREATE INDEX IF NOT EXISTS idx_favorites_created ON " + TABLE_FAVORITES + "(createdAt, productId)");
+        }
+        if (oldVersion < 11) {
+            // Normalized variants for version 11, parsed once from the legacy CSV columns
+            createProductVariantsTable(db);
+            Cursor cursor = db.query(TABLE_PRODUCT, new String[]{"id", "sizes", "colors"}, null, null, null, null, null);
+            try {
+                while (cursor.moveToNext()) {
+                    replaceVariants(db, cursor.getLong(0), ProductVariants.of(
+                            ProductVariants.canonicalizeCsv(cursor.getString(1)),
+                            ProductVariants.canonicalizeCsv(cursor.getString(2))));
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        if (oldVersion < 12) {
+            // Monthly spend is bucketed in UTC for version 12: recreate the triggers and rebuild the rollup
+            db.execSQL("DROP TRIGGER IF EXISTS orders_spend_after_insert");
+            db.execSQL("DROP TRIGGER IF EXISTS orders_spend_after_delete");
+            db.execSQL("DROP TRIGGER IF EXISTS orders_spend_after_update");
+            createMonthlySpendRollup(db);
+            db.execSQL("DELETE FROM " + TABLE_MONTHLY_SPEND);
+            seedMonthlySpend(db);
+        }
+        if (oldVersion < 13) {
+            // Version 13 stops seeding a demo catalog; drop the rows earlier versions seeded
+            // unless a sync has since replaced them. Cart rows and favorites cascade.
+            db.execSQL("DELETE FROM " + TABLE_PRODUCT + " WHERE " +
+                    "(id = 1 AND name = 'Nike Jordan 1 Retro Yellow') OR " +
+                    "(id = 2 AND name = 'Jacket Pullover Sweat Hoodie') OR " +
+                    "(id = 3 AND name = 'Minimal Sofa Bliss') OR " +
+                    "(id = 4 AND name = 'Smart Speaker Mini')");
+            db.execSQL("DELETE FROM " + TABLE_CATEGORY + " WHERE " +
+                    "((id = 1 AND title = 'Furniture') OR (id = 2 AND title = 'Fashion') OR " +
+                    "(id = 3 AND title = 'Gadgets') OR (id = 4 AND title = 'Sneakers')) " +
+                    "AND id NOT IN (SELECT categoryId FROM " + TABLE_PRODUCT + " WHERE categoryId IS NOT NULL)");
+        }
     }
 
-    private void insertInitialData(SQLiteDatabase db) {
-        long furnitureId = insertCategory(db, "Furniture", "https://images.unsplash.com/photo-1493666438817-866a91353ca9");
-        long fashionId = insertCategory(db, "Fashion", "https://images.unsplash.com/photo-1521572163474-6864f9cf17ab");
-        long gadgetsId = insertCategory(db, "Gadgets", "https://images.unsplash.com/photo-1510557880182-3d4d3cba35a5");
-        long shoesId = insertCategory(db, "Sneakers", "https://images.unsplash.com/photo-1514996937319-344454492b37");
-
-        insertProduct(db, "Nike Jordan 1 Retro Yellow",
-                "Timeless high-top sneakers with a bold yellow accent.",
-                608,
-                "https://images.unsplash.com/photo-1514986888952-8cd320577b68",
-                shoesId,
-                "S,M,L",
-                "Yellow,White,Black");
-
-        insertProduct(db, "Jacket Pullover Sweat Hoodie",
-                "Soft and warm hoodie perfect for chilly evenings.",
-                28,
-                "https://images.unsplash.com/photo-1484519332611-516457305ff6",
-                fashionId,
-                "S,M,L,XL,XXL",
-                "Black,Gray,White");
-
-        insertProduct(db, "Minimal Sofa Bliss",
-                "Modern grey sofa that elevates any living room.",
-                389,
-                "https://images.unsplash.com/photo-1493666438817-866a91353ca9",
-                furnitureId,
-                "One Size",
-                "Gray,Beige");
-
-        insertProduct(db, "Smart Speaker Mini",
-                "Compact assistant with room-filling sound.",
-                79,
-                "https://images.unsplash.com/photo-1517059224940-d4af9eec41e5",
-                gadgetsId,
-                "One Size",
-                "Charcoal,White");
-    }
-
-    private long insertCategory(SQLiteDatabase db, String title, String imageUrl) {
-        ContentValues values = new ContentValues();
-        values.put("title", title);
-        values.put("imageUrl", imageUrl);
-        return db.insert(TABLE_CATEGORY, null, values);
-    }
-
-    private long insertProduct(SQLiteDatabase db,
-                               String name,
-                               String description,
-                               double price,
-                               String imageUrl,
-                               long categoryId,
-                               String sizes,
-                               String colors) {
-        ContentValues values = new ContentValues();
-        values.put("name", name);
-        values.put("description", description);
-        values.put("price", price);
-        values.put("imageUrl", imageUrl);
-        values.put("categoryId", categoryId);
-        values.put("sizes", sizes);
-        values.put("colors", colors);
-        return db.insert(TABLE_PRODUCT, null, values);
+    /**
+     * One row per size or color, in display order. The sizes and colors CSV columns
+     * on products are no longer read or written.
+     */
+    private void createProductVariantsTable(SQLiteDatabase db) {
+        db.execSQL(
+                "CREATE TABLE IF NOT EXISTS " + TABLE_PRODUCT_VARIANTS + " (" +
+                        "productId INTEGER NOT NULL," +
+                        "kind INTEGER NOT NULL," +
+                        "position INTEGER NOT NULL," +
+                        "value TEXT NOT NULL," +
+                        "PRIMARY KEY(productId, kind, position)," +
+                        "FOREIGN KEY(productId) REFERENCES " + TABLE_PRODUCT + "(id) ON DELETE CASCADE" +
+                        ") WITHOUT ROWID"
+        );
+    }
+
+    /** Rewrites a product's variant rows unless they already match; returns whether they changed. */
+    private boolean replaceVariants(SQLiteDatabase db, long productId, ProductVariants variants) {
+        List<String> sizes = new ArrayList<>();
+        List<String> colors = new ArrayList<>();
+        Cursor cursor = db.query(TABLE_PRODUCT_VARIANTS, new String[]{"kind", "value"},
+                "productId = ?", new String[]{String.valueOf(productId)},
+                null, null, "kind, position");
+        try {
+            while (cursor.moveToNext()) {
+                if (cursor.getInt(0) == VARIANT_KIND_SIZE) {
+                    sizes.add(cursor.getString(1));
+                } else {
+                    colors.add(cursor.getString(1));
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        if (sizes.equals(variants.getSizes()) && colors.equals(variants.getColors())) {
+            return false;
+        }
+        db.delete(TABLE_PRODUCT_VARIANTS, "productId = ?", new String[]{String.valueOf(productId)});
+        insertVariantValues(db, productId, VARIANT_KIND_SIZE, variants.getSizes());
+        insertVariantValues(db, productId, VARIANT_KIND_COLOR, variants.getColors());
+        return true;
+    }
+
+    private void insertVariantValues(SQLiteDatabase db, long productId, int kind, List<String> values) {
+        for (int position = 0; position < values.size(); position++) {
+            ContentValues row = new ContentValues();
+            row.put("productId", productId);
+            row.put("kind", kind);
+            row.put("position", position);
+            row.put("value", values.get(position));
+            db.insert(TABLE_PRODUCT_VARIANTS, null, row);
+        }
+    }
+
+    private void createCartTable(SQLiteDatabase db, String name) {
+        db.execSQL(
+                "CREATE TABLE " + name + " (" +
+                        "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                        "productId INTEGER NOT NULL," +
+                        "quantity INTEGER NOT NULL," +
+                        "size TEXT," +
+                        "color TEXT," +
+                        "unitPrice REAL NOT NULL DEFAULT 0," +
+                        "discountPercent REAL NOT NULL DEFAULT 0," +
+                        "FOREIGN KEY(productId) REFERENCES " + TABLE_PRODUCT + "(id) ON DELETE CASCADE" +
+                        ")"
+        );
+    }
+
+    private void createFavoritesTable(SQLiteDatabase db, String name) {
+        db.execSQL(
+                "CREATE TABLE " + name + " (" +
+                        "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                        "productId INTEGER NOT NULL UNIQUE," +
+                        "createdAt INTEGER NOT NULL DEFAULT (strftime('%s','now'))," +
+                        "FOREIGN KEY(productId) REFERENCES " + TABLE_PRODUCT + "(id) ON DELETE CASCADE" +
+                        ")"
+        );
+    }
+
+    private void createCartVariantIndex(SQLiteDatabase db) {
+        // One row per variant; its productId prefix also serves the cart joins and product cleanup
+        db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS idx_cart_items_variant ON " + TABLE_CART + "(productId, size, color)");
+    }
+
+    /**
+     * Spend per (month, status), maintained by triggers on orders so the wallet reads
+     * a few precomputed rows instead of scanning every order. Months are bucketed in
+     * UTC, so a bucket never depends on the time zone the device had when a row was written.
+     */
+    private void createMonthlySpendRollup(SQLiteDatabase db) {
+        db.execSQL(
+                "CREATE TABLE IF NOT EXISTS " + TABLE_MONTHLY_SPEND + " (" +
+                        "month TEXT NOT NULL," +
+                        "status TEXT NOT NULL," +
+                        "orderCount INTEGER NOT NULL," +
+                        "total REAL NOT NULL," +
+                        "PRIMARY KEY(month, status)" +
+                        ")"
+        );
+        db.execSQL(
+                "CREATE TRIGGER IF NOT EXISTS orders_spend_after_insert AFTER INSERT ON " + TABLE_ORDERS + " BEGIN " +
+                        addToMonthlySpend("new") + " END"
+        );
+        db.execSQL(
+                "CREATE TRIGGER IF NOT EXISTS orders_spend_after_delete AFTER DELETE ON " + TABLE_ORDERS + " BEGIN " +
+                        removeFromMonthlySpend("old") + " END"
+        );
+        db.execSQL(
+                "CREATE TRIGGER IF NOT EXISTS orders_spend_after_update AFTER UPDATE OF total, status, createdAt ON " +
+                        TABLE_ORDERS + " BEGIN " +
+                        removeFromMonthlySpend("old") + " " + addToMonthlySpend("new") + " END"
+        );
+    }
+
+    private static String addToMonthlySpend(String row) {
+        String month = orderMonth(row);
+        return "INSERT OR IGNORE INTO " + TABLE_MONTHLY_SPEND + " (month, status, orderCount, total) " +
+                "VALUES (" + month + ", " + row + ".status, 0, 0); " +
+                "UPDATE " + TABLE_MONTHLY_SPEND + " SET orderCount = orderCount + 1, total = total + " + row + ".total " +
+                "WHERE month = " + month + " AND status = " + row + ".status;";
+    }
+
+    private static String removeFromMonthlySpend(String row) {
+        String month = orderMonth(row);
+        return "UPDATE " + TABLE_MONTHLY_SPEND + " SET orderCount = orderCount - 1, total = total - " + row + ".total " +
+                "WHERE month = " + month + " AND status = " + row + ".status; " +
+                // Drop emptied buckets so rounding drift in total never outlives its orders
+                "DELETE FROM " + TABLE_MONTHLY_SPEND + " WHERE month = " + month + " AND status = " + row + ".status " +
+                "AND orderCount <= 0;";
+    }
+
+    // createdAt is epoch millis
+    private static String orderMonth(String row) {
+        return "strftime('%Y-%m', " + row + ".createdAt / 1000, 'unixepoch')";
+    }
+
+    private void seedMonthlySpend(SQLiteDatabase db) {
+        db.execSQL(
+                "INSERT INTO " + TABLE_MONTHLY_SPEND + " (month, status, orderCount, total) " +
+                        "SELECT " + orderMonth(TABLE_ORDERS) + ", status, COUNT(*), SUM(total) FROM " + TABLE_ORDERS +
+                        " GROUP BY 1, 2"
+        );
+    }
+
+    private void createLookupIndexes(SQLiteDatabase db) {
+        // getProducts(categoryId) filters on categoryId and sorts by id
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_products_category ON " + TABLE_PRODUCT + "(categoryId, id)");
+        // Order history is always read newest first
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_orders_created ON " + TABLE_ORDERS + "(createdAt, id)");
+        // Favorites are listed newest first and joined to products by productId
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_favorites_created ON " + TABLE_FAVORITES + "(createdAt, productId)");
+    }
+
+    private void createProductSearchIndex(SQLiteDatabase db) {
+        // External-content FTS4 table: the text lives in products, the index is kept in sync by triggers
+        db.execSQL(
+                "CREATE VIRTUAL TABLE IF NOT EXISTS " + TABLE_PRODUCT_SEARCH + " USING fts4(" +
+                        "content=\"" + TABLE_PRODUCT + "\", name, description)"
+        );
+        db.execSQL(
+                "CREATE TRIGGER IF NOT EXISTS products_fts_before_update BEFORE UPDATE ON " + TABLE_PRODUCT + " BEGIN " +
+                        "DELETE FROM " + TABLE_PRODUCT_SEARCH + " WHERE docid = old.id; END"
+        );
+        db.execSQL(
+                "CREATE TRIGGER IF NOT EXISTS products_fts_before_delete BEFORE DELETE ON " + TABLE_PRODUCT + " BEGIN " +
+                        "DELETE FROM " + TABLE_PRODUCT_SEARCH + " WHERE docid = old.id; END"
+        );
+        db.execSQL(
+                "CREATE TRIGGER IF NOT EXISTS products_fts_after_update AFTER UPDATE ON " + TABLE_PRODUCT + " BEGIN " +
+                        "INSERT INTO " + TABLE_PRODUCT_SEARCH + "(docid, name, description) " +
+                        "VALUES (new.id, new.name, new.description); END"
+        );
+        db.execSQL(
+                "CREATE TRIGGER IF NOT EXISTS products_fts_after_insert AFTER INSERT ON " + TABLE_PRODUCT + " BEGIN " +
+                        "INSERT INTO " + TABLE_PRODUCT_SEARCH + "(docid, name, description) " +
+                        "VALUES (new.id, new.name, new.description); END"
+        );
     }
 
     public List<Category> getCategories() {
@@ -174,11 +521,11 @@ public class AppDatabaseHelper extends SQLiteOpenHelper {
         SQLiteDatabase db = getReadableDatabase();
         Cursor cursor = db.query(TABLE_CATEGORY, null, null, null, null, null, "title ASC");
         if (cursor != null) {
+            int idIndex = cursor.getColumnIndexOrThrow("id");
+            int titleIndex = cursor.getColumnIndexOrThrow("title");
+            int imageUrlIndex = cursor.getColumnIndexOrThrow("imageUrl");
             while (cursor.moveToNext()) {
-                long id = cursor.getLong(cursor.getColumnIndexOrThrow("id"));
-                String title = cursor.getString(cursor.getColumnIndexOrThrow("title"));
-                String imageUrl = cursor.getString(cursor.getColumnIndexOrThrow("imageUrl"));
-                categories.add(new Category(id, title, imageUrl));
+                categories.add(new Category(cursor.getLong(idIndex), cursor.getString(titleIndex), cursor.getString(imageUrlIndex)));
             }
             cursor.close();
         }
@@ -192,8 +539,32 @@ public class AppDatabaseHelper extends SQLiteOpenHelper {
         String[] selectionArgs = categoryId == null ? null : new String[]{String.valueOf(categoryId)};
         Cursor cursor = db.query(TABLE_PRODUCT, null, selection, selectionArgs, null, null, "id DESC");
         if (cursor != null) {
+            CursorReaders.ProductReader reader = new CursorReaders.ProductReader(cursor);
+            while (cursor.moveToNext()) {
+                products.add(reader.read(cursor));
+            }
+            cursor.close();
+        }
+        return products;
+    }
+
+    /**
+     * Keyset page of products newest first. Pass {@code Long.MAX_VALUE} as
+     * {@code beforeId} for the first page, then the id of the last product seen.
+     */
+    public List<Product> getProductsPage(Long categoryId, long beforeId, int limit) {
+        List<Product> products = new ArrayList<>();
+        SQLiteDatabase db = getReadableDatabase();
+        String selection = categoryId == null ? "id < ?" : CATEGORY_PAGE_SELECTION;
+        String[] selectionArgs = categoryId == null
+                ? new String[]{String.valueOf(beforeId)}
+                : new String[]{String.valueOf(categoryId), String.valueOf(beforeId)};
+        Cursor cursor = db.query(TABLE_PRODUCT, null, selection, selectionArgs, null, null,
+                PRODUCTS_PAGE_ORDER, String.valueOf(limit));
+        if (cursor != null) {
+            CursorReaders.ProductReader reader = new CursorReaders.ProductReader(cursor);
             while (cursor.moveToNext()) {
-                products.add(parseProductCursor(cursor));
+                products.add(reader.read(cursor));
             }
             cursor.close();
         }
@@ -204,138 +575,560 @@ public class AppDatabaseHelper extends SQLiteOpenHelper {
         SQLiteDatabase db = getReadableDatabase();
         Cursor cursor = db.query(TABLE_PRODUCT, null, "id = ?", new String[]{String.valueOf(id)}, null, null, null);
         if (cursor != null && cursor.moveToFirst()) {
-            Product product = parseProductCursor(cursor);
+            Product product = new CursorReaders.ProductReader(cursor).read(cursor);
             cursor.close();
             return product;
         }
         return null;
     }
 
+    public ProductVariants getProductVariants(long productId) {
+        List<String> sizes = new ArrayList<>();
+        List<String> colors = new ArrayList<>();
+        SQLiteDatabase db = getReadableDatabase();
+        Cursor cursor = db.query(TABLE_PRODUCT_VARIANTS, new String[]{"kind", "value"},
+                "productId = ?", new String[]{String.valueOf(productId)},
+                null, null, "kind, position");
+        try {
+            while (cursor.moveToNext()) {
+                if (cursor.getInt(0) == VARIANT_KIND_SIZE) {
+                    sizes.add(cursor.getString(1));
+                } else {
+                    colors.add(cursor.getString(1));
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        return ProductVariants.of(sizes, colors);
+    }
+
     public List<Product> searchProducts(String keyword) {
         List<Product> products = new ArrayList<>();
         SQLiteDatabase db = getReadableDatabase();
-        Cursor cursor = db.query(TABLE_PRODUCT, null, "name LIKE ?", new String[]{"%" + keyword + "%"}, null, null, "name ASC");
+        String matchQuery = buildPrefixMatchQuery(keyword, null);
+        Cursor cursor;
+        if (matchQuery == null) {
+            cursor = db.query(TABLE_PRODUCT, null, null, null, null, null, "name ASC");
+        } else {
+            // Products matching on name rank ahead of those matching only on description
+            String query = "SELECT p.* FROM " + TABLE_PRODUCT + " p " +
+                    "WHERE p.id IN (SELECT docid FROM " + TABLE_PRODUCT_SEARCH + " WHERE " + TABLE_PRODUCT_SEARCH + " MATCH ?) " +
+                    "ORDER BY p.id NOT IN (SELECT docid FROM " + TABLE_PRODUCT_SEARCH + " WHERE " + TABLE_PRODUCT_SEARCH + " MATCH ?), " +
+                    "p.name ASC";
+            cursor = db.rawQuery(query, new String[]{matchQuery, buildPrefixMatchQuery(keyword, "name")});
+        }
         if (cursor != null) {
+            CursorReaders.ProductReader reader = new CursorReaders.ProductReader(cursor);
             while (cursor.moveToNext()) {
-                products.add(parseProductCursor(cursor));
+                products.add(reader.read(cursor));
             }
             cursor.close();
         }
         return products;
     }
 
-    public long addToCart(long productId, int quantity, String size, String color) {
+    /**
+     * Turns free text into an FTS prefix query ("nike jor" -> "nike* jor*"), optionally
+     * scoped to one column. Returns null when the text has no searchable terms.
+     */
+    @VisibleForTesting
+    @Nullable
+    static String buildPrefixMatchQuery(String keyword, @Nullable String column) {
+        if (keyword == null) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder();
+        for (String term : keyword.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (term.isEmpty()) {
+                continue;
+            }
+            if (query.length() > 0) {
+                query.append(' ');
+            }
+            if (column != null) {
+                query.append(column).append(':');
+            }
+            query.append(term).append('*');
+        }
+        return query.length() == 0 ? null : query.toString();
+    }
+
+    /**
+     * Applies one catalog sync in a single transaction. Categories, when given, are
+     * the full server list; products are upserted by id and {@code deletedProductIds}
+     * removed. With {@code fullSnapshot} any local product missing from
+     * {@code products} is deleted as well. Only tables whose rows actually changed
+     * are reported to the {@link InvalidationTracker}.
+     *
+     * <p>Without a full category list, {@code referencedCategories} (the categories
+     * embedded in the products) are added when missing. A product whose category is
+     * still unknown is stored without one rather than failing the foreign key.
+     *
+     * @return true when a product row or its variants changed
+     */
+    public boolean applyCatalogChanges(@Nullable List<Category> categories,
+                                       @Nullable List<Category> referencedCategories,
+                                       List<Product> products,
+                                       List<Long> deletedProductIds,
+                                       boolean fullSnapshot) {
         SQLiteDatabase db = getWritableDatabase();
-        ContentValues values = new ContentValues();
-        values.put("productId", productId);
-        values.put("quantity", quantity);
-        values.put("size", size);
-        values.put("color", color);
-        return db.insert(TABLE_CART, null, values);
+        int categoryChanges = 0;
+        int productChanges = 0;
+        boolean variantsChanged = false;
+        boolean cartChanged = false;
+        boolean favoritesChanged = false;
+        db.beginTransaction();
+        try {
+            // Check product -> category references at commit, once the whole batch is applied
+            db.execSQL("PRAGMA defer_foreign_keys = ON");
+            Set<Long> categoryIds = new HashSet<>();
+            if (categories != null && !categories.isEmpty()) {
+                for (Category category : categories) {
+                    ContentValues values = new ContentValues();
+                    values.put("title", category.getTitle());
+                    values.put("imageUrl", category.getImageUrl());
+                    categoryChanges += upsertById(db, TABLE_CATEGORY, category.getId(), values);
+                    categoryIds.add(category.getId());
+                }
+            } else if (referencedCategories != null) {
+                for (Category category : referencedCategories) {
+                    ContentValues values = new ContentValues();
+                    values.put("id", category.getId());
+                    values.put("title", category.getTitle());
+                    values.put("imageUrl", category.getImageUrl());
+                    if (db.insertWithOnConflict(TABLE_CATEGORY, null, values, SQLiteDatabase.CONFLICT_IGNORE) != -1) {
+                        categoryChanges++;
+                    }
+                }
+            }
+            // A full list is what remains after the stale categories are deleted below
+            Set<Long> knownCategoryIds = categoryIds.isEmpty() ? readIds(db, TABLE_CATEGORY) : categoryIds;
+
+            Set<Long> productIds = new HashSet<>();
+            for (Product product : products) {
+                ContentValues values = new ContentValues();
+                values.put("name", product.getName());
+                values.put("description", product.getDescription());
+                values.put("price", product.getPrice());
+                values.put("discountPercent", product.getDiscountPercent());
+                values.put("imageUrl", product.getImageUrl());
+                if (knownCategoryIds.contains(product.getCategoryId())) {
+                    values.put("categoryId", product.getCategoryId());
+                } else {
+                    values.putNull("categoryId");
+                }
+                productChanges += upsertById(db, TABLE_PRODUCT, product.getId(), values);
+                if (product.hasVariantsLoaded()) {
+                    variantsChanged |= replaceVariants(db, product.getId(), product.getVariants());
+                }
+                productIds.add(product.getId());
+            }
+
+            // Deleted products take their cart rows and favorites with them (ON DELETE CASCADE)
+            long cartRowsBefore = DatabaseUtils.queryNumEntries(db, TABLE_CART);
+            long favoritesBefore = DatabaseUtils.queryNumEntries(db, TABLE_FAVORITES);
+            int productDeletes = 0;
+            for (Long productId : deletedProductIds) {
+                productDeletes += db.delete(TABLE_PRODUCT, "id = ?", new String[]{String.valueOf(productId)});
+            }
+            if (fullSnapshot) {
+                productDeletes += deleteIdsNotIn(db, TABLE_PRODUCT, productIds);
+            }
+            if (productDeletes > 0) {
+                productChanges += productDeletes;
+                cartChanged = DatabaseUtils.queryNumEntries(db, TABLE_CART) != cartRowsBefore;
+                favoritesChanged = DatabaseUtils.queryNumEntries(db, TABLE_FAVORITES) != favoritesBefore;
+            }
+            if (!categoryIds.isEmpty()) {
+                categoryChanges += deleteIdsNotIn(db, TABLE_CATEGORY, categoryIds);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        List<String> changedTables = new ArrayList<>();
+        if (categoryChanges > 0) {
+            changedTables.add(TABLE_CATEGORY);
+        }
+        if (productChanges > 0) {
+            changedTables.add(TABLE_PRODUCT);
+        }
+        if (variantsChanged) {
+            changedTables.add(TABLE_PRODUCT_VARIANTS);
+        }
+        if (cartChanged) {
+            changedTables.add(TABLE_CART);
+        }
+        if (favoritesChanged) {
+            changedTables.add(TABLE_FAVORITES);
+        }
+        if (!changedTables.isEmpty()) {
+            invalidationTracker.notifyTablesChanged(changedTables.toArray(new String[0]));
+        }
+        return productChanges > 0 || variantsChanged;
+    }
+
+    /**
+     * Updates the row only when a column differs, inserting it when the id is new.
+     * Update-then-insert rather than INSERT OR REPLACE: REPLACE skips the delete
+     * triggers that keep products_fts in sync.
+     *
+     * @return 1 when the row was inserted or changed, 0 when it already matched
+     */
+    private int upsertById(SQLiteDatabase db, String table, long id, ContentValues values) {
+        List<String> columns = new ArrayList<>(values.keySet());
+        StringBuilder assignments = new StringBuilder();
+        StringBuilder differs = new StringBuilder();
+        for (String column : columns) {
+            if (assignments.length() > 0) {
+                assignments.append(", ");
+                differs.append(" OR ");
+            }
+            assignments.append(column).append(" = ?");
+            differs.append(column).append(" IS NOT ?");
+        }
+        SQLiteStatement update = compiledStatement("UPDATE " + table + " SET " + assignments +
+                " WHERE id = ? AND (" + differs + ")");
+        int rows;
+        synchronized (update) {
+            int index = 1;
+            for (String column : columns) {
+                bindValue(update, index++, values.get(column));
+            }
+            update.bindLong(index++, id);
+            for (String column : columns) {
+                bindValue(update, index++, values.get(column));
+            }
+            rows = update.executeUpdateDelete();
+            update.clearBindings();
+        }
+        if (rows > 0) {
+            return rows;
+        }
+        // No change means either an identical row or a new id; IGNORE tells them apart
+        values.put("id", id);
+        return db.insertWithOnConflict(table, null, values, SQLiteDatabase.CONFLICT_IGNORE) == -1 ? 0 : 1;
+    }
+
+    private static void bindValue(SQLiteStatement statement, int index, @Nullable Object value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else if (value instanceof Double || value instanceof Float) {
+            statement.bindDouble(index, ((Number) value).doubleValue());
+        } else if (value instanceof Number) {
+            statement.bindLong(index, ((Number) value).longValue());
+        } else {
+            statement.bindString(index, value.toString());
+        }
+    }
+
+    private Set<Long> readIds(SQLiteDatabase db, String table) {
+        Set<Long> ids = new HashSet<>();
+        Cursor cursor = db.query(table, new String[]{"id"}, null, null, null, null, null);
+        if (cursor == null) {
+            return ids;
+        }
+        while (cursor.moveToNext()) {
+            ids.add(cursor.getLong(0));
+        }
+        cursor.close();
+        return ids;
+    }
+
+    private int deleteIdsNotIn(SQLiteDatabase db, String table, Set<Long> keepIds) {
+        int deleted = 0;
+        for (Long id : readIds(db, table)) {
+            if (!keepIds.contains(id)) {
+                deleted += db.delete(table, "id = ?", new String[]{String.valueOf(id)});
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Adds {@code quantity} of a variant to the cart. A variant already in the cart
+     * has its quantity incremented and its price snapshot refreshed in place.
+     *
+     * @return id of the cart row holding the variant, or -1 on failure
+     */
+    public long addToCart(long productId, int quantity, String size, String color,
+                          double unitPrice, double discountPercent) {
+        // Null would escape the unique variant key, so a missing choice is stored as ''
+        String variantSize = size != null ? size : "";
+        String variantColor = color != null ? color : "";
+        SQLiteDatabase db = getWritableDatabase();
+        long cartId;
+        db.beginTransaction();
+        try {
+            // ON CONFLICT DO UPDATE needs SQLite 3.24 (API 30), so increment first and insert on a miss
+            SQLiteStatement increment = compiledStatement(
+                    "UPDATE " + TABLE_CART + " SET quantity = quantity + ?, unitPrice = ?, discountPercent = ? " +
+                            "WHERE " + CART_VARIANT_SELECTION);
+            int rows;
+            synchronized (increment) {
+                increment.bindLong(1, quantity);
+                increment.bindDouble(2, unitPrice);
+                increment.bindDouble(3, discountPercent);
+                increment.bindLong(4, productId);
+                increment.bindString(5, variantSize);
+                increment.bindString(6, variantColor);
+                rows = increment.executeUpdateDelete();
+                increment.clearBindings();
+            }
+            if (rows > 0) {
+                SQLiteStatement findId = compiledStatement(
+                        "SELECT id FROM " + TABLE_CART + " WHERE " + CART_VARIANT_SELECTION);
+                synchronized (findId) {
+                    findId.bindLong(1, productId);
+                    findId.bindString(2, variantSize);
+                    findId.bindString(3, variantColor);
+                    cartId = findId.simpleQueryForLong();
+                    findId.clearBindings();
+                }
+            } else {
+                ContentValues values = new ContentValues();
+                values.put("productId", productId);
+                values.put("quantity", quantity);
+                values.put("size", variantSize);
+                values.put("color", variantColor);
+                values.put("unitPrice", unitPrice);
+                values.put("discountPercent", discountPercent);
+                cartId = db.insert(TABLE_CART, null, values);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        if (cartId != -1) {
+            invalidationTracker.notifyTablesChanged(TABLE_CART);
+        }
+        return cartId;
     }
 
     public boolean updateCartQuantity(long cartId, int quantity) {
+        SQLiteStatement statement = compiledStatement("UPDATE " + TABLE_CART + " SET quantity = ? WHERE id = ?");
+        synchronized (statement) {
+            statement.bindLong(1, quantity);
+            statement.bindLong(2, cartId);
+            int rows = statement.executeUpdateDelete();
+            statement.clearBindings();
+            if (rows > 0) {
+                invalidationTracker.notifyTablesChanged(TABLE_CART);
+            }
+            return rows > 0;
+        }
+    }
+
+    /**
+     * Writes buffered quantity changes, keyed by cart row id, in one transaction.
+     */
+    public void updateCartQuantities(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
         SQLiteDatabase db = getWritableDatabase();
-        ContentValues values = new ContentValues();
-        values.put("quantity", quantity);
-        int rows = db.update(TABLE_CART, values, "id = ?", new String[]{String.valueOf(cartId)});
-        return rows > 0;
+        // Not the cached statement updateCartQuantity locks outside a transaction; see compiledStatement
+        SQLiteStatement statement = db.compileStatement("UPDATE " + TABLE_CART + " SET quantity = ? WHERE id = ?");
+        int rows = 0;
+        db.beginTransaction();
+        try {
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                statement.bindLong(1, entry.getValue());
+                statement.bindLong(2, entry.getKey());
+                rows += statement.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+        if (rows > 0) {
+            invalidationTracker.notifyTablesChanged(TABLE_CART);
+        }
     }
 
     public boolean removeCartItem(long cartId) {
-        SQLiteDatabase db = getWritableDatabase();
-        int rows = db.delete(TABLE_CART, "id = ?", new String[]{String.valueOf(cartId)});
-        return rows > 0;
+        SQLiteStatement statement = compiledStatement("DELETE FROM " + TABLE_CART + " WHERE id = ?");
+        synchronized (statement) {
+            statement.bindLong(1, cartId);
+            int rows = statement.executeUpdateDelete();
+            statement.clearBindings();
+            if (rows > 0) {
+                invalidationTracker.notifyTablesChanged(TABLE_CART);
+            }
+            return rows > 0;
+        }
     }
 
     public void clearCart() {
         SQLiteDatabase db = getWritableDatabase();
-        db.delete(TABLE_CART, null, null);
+        if (db.delete(TABLE_CART, null, null) > 0) {
+            invalidationTracker.notifyTablesChanged(TABLE_CART);
+        }
     }
 
     public int getCartItemCount() {
-        SQLiteDatabase db = getReadableDatabase();
         // Count unique products (1 product = 1 count, regardless of quantity)
         // Join with products table to ensure product exists
-        String query = "SELECT COUNT(*) AS total FROM " + TABLE_CART + " c " +
+        SQLiteStatement statement = compiledStatement("SELECT COUNT(*) FROM " + TABLE_CART + " c " +
                 "INNER JOIN " + TABLE_PRODUCT + " p ON c.productId = p.id " +
-                "WHERE c.quantity > 0";
-        Cursor cursor = db.rawQuery(query, null);
-        int total = 0;
-        if (cursor != null) {
-            if (cursor.moveToFirst()) {
-                total = cursor.getInt(cursor.getColumnIndexOrThrow("total"));
-            }
-            cursor.close();
+                "WHERE c.quantity > 0");
+        synchronized (statement) {
+            return (int) statement.simpleQueryForLong();
         }
-        return total;
     }
 
-    public void cleanupOrphanedCartEntries() {
-        SQLiteDatabase db = getWritableDatabase();
-        // Delete cart entries that reference products that don't exist
-        db.execSQL("DELETE FROM " + TABLE_CART + " WHERE productId NOT IN (SELECT id FROM " + TABLE_PRODUCT + ")");
+    /**
+     * Cart total from the prices captured on each row, without touching products.
+     */
+    public double getCartTotal() {
+        SQLiteDatabase db = getReadableDatabase();
+        Cursor cursor = db.rawQuery(
+                "SELECT COALESCE(SUM(quantity * unitPrice), 0) FROM " + TABLE_CART + " WHERE quantity > 0", null);
+        try {
+            return cursor.moveToFirst() ? cursor.getDouble(0) : 0d;
+        } finally {
+            cursor.close();
+        }
     }
 
-    public void cleanupOrphanedFavorites() {
-        SQLiteDatabase db = getWritableDatabase();
-        // Delete favorites that reference products that don't exist
-        db.execSQL("DELETE FROM " + TABLE_FAVORITES + " WHERE productId NOT IN (SELECT id FROM " + TABLE_PRODUCT + ")");
+    /**
+     * Brings cart price snapshots in line with the local catalog, which the catalog
+     * sync keeps current. Rows whose product is not known locally keep their snapshot.
+     *
+     * @return number of cart rows whose price or discount changed
+     */
+    public int repriceCart() {
+        SQLiteStatement statement = compiledStatement(REPRICE_CART_SQL);
+        int rows;
+        synchronized (statement) {
+            rows = statement.executeUpdateDelete();
+        }
+        if (rows > 0) {
+            invalidationTracker.notifyTablesChanged(TABLE_CART);
+        }
+        return rows;
     }
 
     public void clearAllCartEntries() {
         SQLiteDatabase db = getWritableDatabase();
         // Clear all cart entries using execSQL for reliability
         db.execSQL("DELETE FROM " + TABLE_CART);
+        invalidationTracker.notifyTablesChanged(TABLE_CART);
+    }
+
+    /**
+     * Refreshes query planner statistics. PRAGMA optimize (SQLite 3.18, API 27) only
+     * re-analyzes tables that need it; older releases fall back to a full ANALYZE.
+     */
+    public void optimize() {
+        SQLiteDatabase db = getWritableDatabase();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1) {
+            runPragma(db, "PRAGMA optimize");
+        } else {
+            db.execSQL("ANALYZE");
+        }
+    }
+
+    /**
+     * Returns up to {@code maxPages} free pages to the file system. A database
+     * created before auto_vacuum was enabled is switched over with a one-time VACUUM.
+     *
+     * @return number of pages released
+     */
+    public long incrementalVacuum(int maxPages) {
+        SQLiteDatabase db = getWritableDatabase();
+        if (DatabaseUtils.longForQuery(db, "PRAGMA auto_vacuum", null) != AUTO_VACUUM_INCREMENTAL) {
+            db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+            long before = DatabaseUtils.longForQuery(db, "PRAGMA page_count", null);
+            db.execSQL("VACUUM");
+            return before - DatabaseUtils.longForQuery(db, "PRAGMA page_count", null);
+        }
+        long freeBefore = DatabaseUtils.longForQuery(db, "PRAGMA freelist_count", null);
+        // Each step of incremental_vacuum frees one page, so the cursor has to be drained
+        runPragma(db, "PRAGMA incremental_vacuum(" + maxPages + ")");
+        return freeBefore - DatabaseUtils.longForQuery(db, "PRAGMA freelist_count", null);
+    }
+
+    private static void runPragma(SQLiteDatabase db, String pragma) {
+        Cursor cursor = db.rawQuery(pragma, null);
+        try {
+            while (cursor.moveToNext()) {
+                // Stepping is the work
+            }
+        } finally {
+            cursor.close();
+        }
     }
 
     public void clearAllOrders() {
         SQLiteDatabase db = getWritableDatabase();
         // Clear all orders using execSQL for reliability
         db.execSQL("DELETE FROM " + TABLE_ORDERS);
+        invalidationTracker.notifyTablesChanged(TABLE_ORDERS, TABLE_MONTHLY_SPEND);
     }
 
     // Favorites methods
+    /**
+     * @return true when the favorite was added, false when it already existed
+     * @throws android.database.sqlite.SQLiteConstraintException when the product is not stored locally
+     */
     public boolean addFavorite(long productId) {
         SQLiteDatabase db = getWritableDatabase();
         ContentValues values = new ContentValues();
         values.put("productId", productId);
-        try {
-            db.insertOrThrow(TABLE_FAVORITES, null, values);
-            return true;
-        } catch (Exception e) {
-            // Already favorited
+        // IGNORE covers the unique productId only; a missing product still fails the foreign key
+        long rowId = db.insertWithOnConflict(TABLE_FAVORITES, null, values, SQLiteDatabase.CONFLICT_IGNORE);
+        if (rowId == -1) {
             return false;
         }
+        invalidationTracker.notifyTablesChanged(TABLE_FAVORITES);
+        return true;
     }
 
     public boolean removeFavorite(long productId) {
         SQLiteDatabase db = getWritableDatabase();
         int rows = db.delete(TABLE_FAVORITES, "productId = ?", new String[]{String.valueOf(productId)});
+        if (rows > 0) {
+            invalidationTracker.notifyTablesChanged(TABLE_FAVORITES);
+        }
         return rows > 0;
     }
 
     public boolean isFavorite(long productId) {
+        SQLiteStatement statement = compiledStatement("SELECT COUNT(*) FROM " + TABLE_FAVORITES + " WHERE productId = ?");
+        synchronized (statement) {
+            statement.bindLong(1, productId);
+            long count = statement.simpleQueryForLong();
+            statement.clearBindings();
+            return count > 0;
+        }
+    }
+
+    public long[] getFavoriteProductIds() {
         SQLiteDatabase db = getReadableDatabase();
-        Cursor cursor = db.query(TABLE_FAVORITES, new String[]{"id"}, "productId = ?", new String[]{String.valueOf(productId)}, null, null, null);
-        boolean isFav = cursor != null && cursor.getCount() > 0;
-        if (cursor != null) {
-            cursor.close();
+        Cursor cursor = db.query(TABLE_FAVORITES, new String[]{"productId"}, null, null, null, null, null);
+        if (cursor == null) {
+            return new long[0];
+        }
+        long[] ids = new long[cursor.getCount()];
+        int i = 0;
+        while (cursor.moveToNext()) {
+            ids[i++] = cursor.getLong(0);
         }
-        return isFav;
+        cursor.close();
+        return ids;
     }
 
     public List<Product> getFavoriteProducts() {
         List<Product> products = new ArrayList<>();
         SQLiteDatabase db = getReadableDatabase();
-        // Join favorites with products table
-        String query = "SELECT p.* FROM " + TABLE_PRODUCT + " p " +
-                "INNER JOIN " + TABLE_FAVORITES + " f ON p.id = f.productId " +
-                "ORDER BY f.createdAt DESC";
-        Cursor cursor = db.rawQuery(query, null);
+        Cursor cursor = db.rawQuery(FAVORITE_PRODUCTS_QUERY, null);
         if (cursor != null) {
+            CursorReaders.ProductReader reader = new CursorReaders.ProductReader(cursor);
             while (cursor.moveToNext()) {
-                products.add(parseProductCursor(cursor));
+                products.add(reader.read(cursor));
             }
             cursor.close();
         }
@@ -358,7 +1151,11 @@ public class AppDatabaseHelper extends SQLiteOpenHelper {
         values.put("total", total);
         values.put("status", status);
         values.put("createdAt", createdAt);
-        return db.insert(TABLE_ORDERS, null, values);
+        long orderId = db.insert(TABLE_ORDERS, null, values);
+        if (orderId != -1) {
+            invalidationTracker.notifyTablesChanged(TABLE_ORDERS, TABLE_MONTHLY_SPEND);
+        }
+        return orderId;
     }
 
     public List<Order> getOrders() {
@@ -366,65 +1163,158 @@ public class AppDatabaseHelper extends SQLiteOpenHelper {
         SQLiteDatabase db = getReadableDatabase();
         Cursor cursor = db.query(TABLE_ORDERS, null, null, null, null, null, "createdAt DESC");
         if (cursor != null) {
+            CursorReaders.OrderReader reader = new CursorReaders.OrderReader(cursor);
             while (cursor.moveToNext()) {
-                long id = cursor.getLong(cursor.getColumnIndexOrThrow("id"));
-                String customerName = cursor.getString(cursor.getColumnIndexOrThrow("customerName"));
-                String phone = cursor.getString(cursor.getColumnIndexOrThrow("phone"));
-                String addressLine = cursor.getString(cursor.getColumnIndexOrThrow("addressLine"));
-                String city = cursor.getString(cursor.getColumnIndexOrThrow("city"));
-                double total = cursor.getDouble(cursor.getColumnIndexOrThrow("total"));
-                String status = cursor.getString(cursor.getColumnIndexOrThrow("status"));
-                long createdAt = cursor.getLong(cursor.getColumnIndexOrThrow("createdAt"));
-                orders.add(new Order(id, customerName, phone, addressLine, city, total, status, createdAt));
+                orders.add(reader.read(cursor));
             }
             cursor.close();
         }
         return orders;
     }
 
-    public void updateOrInsertOrder(long serverId, String customerName, String phone, String addressLine, String city, double total, String status, long createdAt) {
-        SQLiteDatabase db = getWritableDatabase();
-        // Check if order exists by server ID
-        Cursor cursor = db.query(TABLE_ORDERS, new String[]{"id"}, "id = ?", new String[]{String.valueOf(serverId)}, null, null, null);
-        boolean exists = cursor != null && cursor.getCount() > 0;
-        if (cursor != null) {
+    /**
+     * Order count, sum and average from the monthly rollup plus the newest order,
+     * so the cost does not grow with the order history.
+     */
+    public OrderStats getOrderStats() {
+        SQLiteDatabase db = getReadableDatabase();
+        Cursor cursor = db.rawQuery(
+                "SELECT s.orderCount, s.totalSpent, o.* FROM" +
+                        " (SELECT COALESCE(SUM(orderCount), 0) AS orderCount, COALESCE(SUM(total), 0) AS totalSpent" +
+                        " FROM " + TABLE_MONTHLY_SPEND + ") AS s" +
+                        " LEFT JOIN (SELECT * FROM " + TABLE_ORDERS +
+                        " ORDER BY createdAt DESC, id DESC LIMIT 1) AS o ON 1",
+                null);
+        try {
+            if (!cursor.moveToFirst()) {
+                return new OrderStats(0, 0d, 0d, null);
+            }
+            int idIndex = cursor.getColumnIndexOrThrow("id");
+            Order latest = cursor.isNull(idIndex) ? null : new CursorReaders.OrderReader(cursor).read(cursor);
+            int orderCount = cursor.getInt(0);
+            double totalSpent = cursor.getDouble(1);
+            double average = orderCount == 0 ? 0d : totalSpent / orderCount;
+            return new OrderStats(orderCount, totalSpent, average, latest);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Spend per month across all statuses, newest month first.
+     */
+    public List<MonthlySpend> getMonthlySpend(int monthLimit) {
+        List<MonthlySpend> months = new ArrayList<>();
+        SQLiteDatabase db = getReadableDatabase();
+        Cursor cursor = db.rawQuery(
+                "SELECT month, SUM(orderCount), SUM(total) FROM " + TABLE_MONTHLY_SPEND +
+                        " GROUP BY month ORDER BY month DESC LIMIT ?",
+                new String[]{String.valueOf(monthLimit)});
+        try {
+            while (cursor.moveToNext()) {
+                months.add(new MonthlySpend(cursor.getString(0), cursor.getInt(1), cursor.getDouble(2)));
+            }
+        } finally {
             cursor.close();
         }
+        return months;
+    }
 
-        ContentValues values = new ContentValues();
-        values.put("id", serverId);
-        values.put("customerName", customerName);
-        values.put("phone", phone);
-        values.put("addressLine", addressLine);
-        values.put("city", city);
-        values.put("total", total);
-        values.put("status", status);
-        values.put("createdAt", createdAt);
+    /**
+     * Keyset page of orders newest first, ordered by (createdAt, id). Pass
+     * {@code Long.MAX_VALUE} for both keys for the first page.
+     */
+    public List<Order> getOrdersPage(long beforeCreatedAt, long beforeId, int limit) {
+        List<Order> orders = new ArrayList<>();
+        SQLiteDatabase db = getReadableDatabase();
+        String createdAt = String.valueOf(beforeCreatedAt);
+        Cursor cursor = db.query(TABLE_ORDERS, null, ORDERS_PAGE_SELECTION,
+                new String[]{createdAt, createdAt, String.valueOf(beforeId)},
+                null, null, ORDERS_PAGE_ORDER, String.valueOf(limit));
+        if (cursor != null) {
+            CursorReaders.OrderReader reader = new CursorReaders.OrderReader(cursor);
+            while (cursor.moveToNext()) {
+                orders.add(reader.read(cursor));
+            }
+            cursor.close();
+        }
+        return orders;
+    }
 
-        if (exists) {
-            // Update existing order (mainly to update status)
-            db.update(TABLE_ORDERS, values, "id = ?", new String[]{String.valueOf(serverId)});
-        } else {
-            // Insert new order
-            db.insert(TABLE_ORDERS, null, values);
+    /**
+     * Applies a batch of server orders in one transaction. New orders are inserted,
+     * existing ones are rewritten with the server's values only when a column differs.
+     *
+     * @return number of rows inserted or updated
+     */
+    public int syncOrders(List<Order> serverOrders) {
+        if (serverOrders == null || serverOrders.isEmpty()) {
+            return 0;
+        }
+        SQLiteDatabase db = getWritableDatabase();
+        // ON CONFLICT DO UPDATE needs SQLite 3.24 (API 30), so upsert as insert-or-ignore plus a guarded update
+        SQLiteStatement insert = db.compileStatement(
+                "INSERT OR IGNORE INTO " + TABLE_ORDERS +
+                        " (id, customerName, phone, addressLine, city, total, status, createdAt)" +
+                        " VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+        // The WHERE skips identical rows, so unchanged orders neither write nor fire the rollup trigger
+        SQLiteStatement update = db.compileStatement(
+                "UPDATE " + TABLE_ORDERS + " SET customerName = ?1, phone = ?2, addressLine = ?3, city = ?4, " +
+                        "total = ?5, status = ?6, createdAt = ?7 " +
+                        "WHERE id = ?8 AND (customerName IS NOT ?1 OR phone IS NOT ?2 OR addressLine IS NOT ?3 " +
+                        "OR city IS NOT ?4 OR total IS NOT ?5 OR status IS NOT ?6 OR createdAt IS NOT ?7)");
+        int changed = 0;
+        db.beginTransaction();
+        try {
+            for (Order order : serverOrders) {
+                insert.bindLong(1, order.getId());
+                insert.bindString(2, order.getCustomerName());
+                insert.bindString(3, order.getPhone());
+                insert.bindString(4, order.getAddressLine());
+                insert.bindString(5, order.getCity());
+                insert.bindDouble(6, order.getTotalAmount());
+                insert.bindString(7, order.getStatus());
+                insert.bindLong(8, order.getCreatedAt());
+                if (insert.executeInsert() != -1) {
+                    changed++;
+                    continue;
+                }
+                update.bindString(1, order.getCustomerName());
+                update.bindString(2, order.getPhone());
+                update.bindString(3, order.getAddressLine());
+                update.bindString(4, order.getCity());
+                update.bindDouble(5, order.getTotalAmount());
+                update.bindString(6, order.getStatus());
+                update.bindLong(7, order.getCreatedAt());
+                update.bindLong(8, order.getId());
+                changed += update.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insert.close();
+            update.close();
+        }
+        if (changed > 0) {
+            invalidationTracker.notifyTablesChanged(TABLE_ORDERS, TABLE_MONTHLY_SPEND);
         }
+        return changed;
     }
 
     public List<CartItem> getCartItems() {
         List<CartItem> items = new ArrayList<>();
         SQLiteDatabase db = getReadableDatabase();
-        Cursor cursor = db.query(TABLE_CART, null, null, null, null, null, "id DESC");
+        // Hydrate every cart row with its product in one pass instead of a lookup per row
+        String query = "SELECT c.id AS cartId, c.quantity AS cartQuantity, c.size AS cartSize, c.color AS cartColor, " +
+                "c.unitPrice AS cartUnitPrice, c.discountPercent AS cartDiscountPercent, p.* " +
+                "FROM " + TABLE_CART + " c " +
+                "INNER JOIN " + TABLE_PRODUCT + " p ON p.id = c.productId " +
+                "ORDER BY c.id DESC";
+        Cursor cursor = db.rawQuery(query, null);
         if (cursor != null) {
+            CursorReaders.CartItemReader reader = new CursorReaders.CartItemReader(cursor);
             while (cursor.moveToNext()) {
-                long id = cursor.getLong(cursor.getColumnIndexOrThrow("id"));
-                long productId = cursor.getLong(cursor.getColumnIndexOrThrow("productId"));
-                int quantity = cursor.getInt(cursor.getColumnIndexOrThrow("quantity"));
-                String size = cursor.getString(cursor.getColumnIndexOrThrow("size"));
-                String color = cursor.getString(cursor.getColumnIndexOrThrow("color"));
-                Product product = getProductById(productId);
-                if (product != null) {
-                    items.add(new CartItem(id, product, quantity, size, color));
-                }
+                items.add(reader.read(cursor));
             }
             cursor.close();
         }
@@ -436,13 +1326,9 @@ public class AppDatabaseHelper extends SQLiteOpenHelper {
         SQLiteDatabase db = getReadableDatabase();
         Cursor cursor = db.query(TABLE_CART, null, null, null, null, null, "id DESC");
         if (cursor != null) {
+            CursorReaders.CartRawReader reader = new CursorReaders.CartRawReader(cursor);
             while (cursor.moveToNext()) {
-                long id = cursor.getLong(cursor.getColumnIndexOrThrow("id"));
-                long productId = cursor.getLong(cursor.getColumnIndexOrThrow("productId"));
-                int quantity = cursor.getInt(cursor.getColumnIndexOrThrow("quantity"));
-                String size = cursor.getString(cursor.getColumnIndexOrThrow("size"));
-                String color = cursor.getString(cursor.getColumnIndexOrThrow("color"));
-                items.add(new CartRawData(id, productId, quantity, size, color));
+                items.add(reader.read(cursor));
             }
             cursor.close();
         }
@@ -464,28 +1350,4 @@ public class AppDatabaseHelper extends SQLiteOpenHelper {
             this.color = color;
         }
     }
-    private Product parseProductCursor(Cursor cursor) {
-        long id = cursor.getLong(cursor.getColumnIndexOrThrow("id"));
-        String name = cursor.getString(cursor.getColumnIndexOrThrow("name"));
-        String description = cursor.getString(cursor.getColumnIndexOrThrow("description"));
-        double price = cursor.getDouble(cursor.getColumnIndexOrThrow("price"));
-        String imageUrl = cursor.getString(cursor.getColumnIndexOrThrow("imageUrl"));
-        long categoryId = cursor.getLong(cursor.getColumnIndexOrThrow("categoryId"));
-        String sizes = cursor.getString(cursor.getColumnIndexOrThrow("sizes"));
-        String colors = cursor.getString(cursor.getColumnIndexOrThrow("colors"));
-        
-        // Get discountPercent if column exists, otherwise default to 0
-        double discountPercent = 0.0;
-        try {
-            int discountIndex = cursor.getColumnIndex("discountPercent");
-            if (discountIndex >= 0 && !cursor.isNull(discountIndex)) {
-                discountPercent = cursor.getDouble(discountIndex);
-            }
-        } catch (Exception e) {
-            // Column doesn't exist, use default 0
-        }
-        
-        return new Product(id, name, description, price, discountPercent, imageUrl, categoryId, sizes, colors);
-    }
 }
-
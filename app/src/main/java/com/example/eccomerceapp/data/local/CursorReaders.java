@@ -0,0 +1,144 @@
+package com.example.eccomerceapp.data.local;
+
+import android.database.Cursor;
+
+import com.example.eccomerceapp.model.CartItem;
+import com.example.eccomerceapp.model.Order;
+import com.example.eccomerceapp.model.Product;
+
+/**
+ * Row mappers that resolve a cursor's column layout once, so decoding a row is
+ * plain indexed reads plus the model allocation.
+ */
+final class CursorReaders {
+
+    private CursorReaders() {
+    }
+
+    static final class ProductReader {
+        private final int idIndex;
+        private final int nameIndex;
+        private final int descriptionIndex;
+        private final int priceIndex;
+        private final int discountIndex;
+        private final int imageUrlIndex;
+        private final int categoryIdIndex;
+
+        ProductReader(Cursor cursor) {
+            idIndex = cursor.getColumnIndexOrThrow("id");
+            nameIndex = cursor.getColumnIndexOrThrow("name");
+            descriptionIndex = cursor.getColumnIndexOrThrow("description");
+            priceIndex = cursor.getColumnIndexOrThrow("price");
+            discountIndex = cursor.getColumnIndexOrThrow("discountPercent");
+            imageUrlIndex = cursor.getColumnIndexOrThrow("imageUrl");
+            categoryIdIndex = cursor.getColumnIndexOrThrow("categoryId");
+        }
+
+        Product read(Cursor cursor) {
+            double discountPercent = cursor.isNull(discountIndex) ? 0.0 : cursor.getDouble(discountIndex);
+            return new Product(
+                    cursor.getLong(idIndex),
+                    cursor.getString(nameIndex),
+                    cursor.getString(descriptionIndex),
+                    cursor.getDouble(priceIndex),
+                    discountPercent,
+                    cursor.getString(imageUrlIndex),
+                    cursor.getLong(categoryIdIndex),
+                    null);
+        }
+    }
+
+    static final class OrderReader {
+        private final int idIndex;
+        private final int customerNameIndex;
+        private final int phoneIndex;
+        private final int addressLineIndex;
+        private final int cityIndex;
+        private final int totalIndex;
+        private final int statusIndex;
+        private final int createdAtIndex;
+
+        OrderReader(Cursor cursor) {
+            idIndex = cursor.getColumnIndexOrThrow("id");
+            customerNameIndex = cursor.getColumnIndexOrThrow("customerName");
+            phoneIndex = cursor.getColumnIndexOrThrow("phone");
+            addressLineIndex = cursor.getColumnIndexOrThrow("addressLine");
+            cityIndex = cursor.getColumnIndexOrThrow("city");
+            totalIndex = cursor.getColumnIndexOrThrow("total");
+            statusIndex = cursor.getColumnIndexOrThrow("status");
+            createdAtIndex = cursor.getColumnIndexOrThrow("createdAt");
+        }
+
+        Order read(Cursor cursor) {
+            return new Order(
+                    cursor.getLong(idIndex),
+                    cursor.getString(customerNameIndex),
+                    cursor.getString(phoneIndex),
+                    cursor.getString(addressLineIndex),
+                    cursor.getString(cityIndex),
+                    cursor.getDouble(totalIndex),
+                    cursor.getString(statusIndex),
+                    cursor.getLong(createdAtIndex));
+        }
+    }
+
+    static final class CartRawReader {
+        private final int idIndex;
+        private final int productIdIndex;
+        private final int quantityIndex;
+        private final int sizeIndex;
+        private final int colorIndex;
+
+        CartRawReader(Cursor cursor) {
+            idIndex = cursor.getColumnIndexOrThrow("id");
+            productIdIndex = cursor.getColumnIndexOrThrow("productId");
+            quantityIndex = cursor.getColumnIndexOrThrow("quantity");
+            sizeIndex = cursor.getColumnIndexOrThrow("size");
+            colorIndex = cursor.getColumnIndexOrThrow("color");
+        }
+
+        AppDatabaseHelper.CartRawData read(Cursor cursor) {
+            return new AppDatabaseHelper.CartRawData(
+                    cursor.getLong(idIndex),
+                    cursor.getLong(productIdIndex),
+                    cursor.getInt(quantityIndex),
+                    cursor.getString(sizeIndex),
+                    cursor.getString(colorIndex));
+        }
+    }
+
+    /**
+     * Reads the cart/product JOIN produced by {@link AppDatabaseHelper#getCartItems()}:
+     * cart columns are aliased, product columns keep their table names.
+     */
+    static final class CartItemReader {
+        private final int cartIdIndex;
+        private final int quantityIndex;
+        private final int sizeIndex;
+        private final int colorIndex;
+        private final int unitPriceIndex;
+        private final int discountPercentIndex;
+        private final ProductReader productReader;
+
+        CartItemReader(Cursor cursor) {
+            cartIdIndex = cursor.getColumnIndexOrThrow("cartId");
+            quantityIndex = cursor.getColumnIndexOrThrow("cartQuantity");
+            sizeIndex = cursor.getColumnIndexOrThrow("cartSize");
+            colorIndex = cursor.getColumnIndexOrThrow("cartColor");
+            unitPriceIndex = cursor.getColumnIndexOrThrow("cartUnitPrice");
+            discountPercentIndex = cursor.getColumnIndexOrThrow("cartDiscountPercent");
+            productReader = new ProductReader(cursor);
+        }
+
+        CartItem read(Cursor cursor) {
+            return new CartItem(
+                    cursor.getLong(cartIdIndex),
+                    productReader.read(cursor),
+                    cursor.getInt(quantityIndex),
+                    cursor.getString(sizeIndex),
+                    cursor.getString(colorIndex),
+                    cursor.getDouble(unitPriceIndex),
+                    cursor.getDouble(discountPercentIndex));
+        }
+    }
+}
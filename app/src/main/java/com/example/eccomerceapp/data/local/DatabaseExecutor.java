@@ -0,0 +1,105 @@
+package com.example.eccomerceapp.data.local;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs database work off the main thread. Writes go through one serial thread so
+ * they apply in submission order; reads share a small pool and run concurrently
+ * thanks to WAL. Results are delivered back on the main thread. A task that throws
+ * is logged and reported to its {@link ErrorCallback} instead of its callback.
+ */
+public final class DatabaseExecutor {
+
+    private static final String TAG = "DatabaseExecutor";
+    private static final int READER_THREADS = 3;
+
+    public interface Task<T> {
+        T run();
+    }
+
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    public interface ErrorCallback {
+        void onError(RuntimeException error);
+    }
+
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(threadFactory("db-writer"));
+    private static final ExecutorService readers = Executors.newFixedThreadPool(READER_THREADS, threadFactory("db-reader"));
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private DatabaseExecutor() {
+    }
+
+    public static <T> void read(Task<T> task, @Nullable Callback<T> callback) {
+        read(task, callback, null);
+    }
+
+    public static <T> void read(Task<T> task, @Nullable Callback<T> callback, @Nullable ErrorCallback onError) {
+        readers.execute(() -> runAndDeliver(task, callback, onError));
+    }
+
+    public static <T> void writeForResult(Task<T> task, @Nullable Callback<T> callback) {
+        writeForResult(task, callback, null);
+    }
+
+    public static <T> void writeForResult(Task<T> task, @Nullable Callback<T> callback,
+                                          @Nullable ErrorCallback onError) {
+        writer.execute(() -> runAndDeliver(task, callback, onError));
+    }
+
+    public static void write(Runnable task, @Nullable Runnable onComplete) {
+        write(task, onComplete, null);
+    }
+
+    public static void write(Runnable task, @Nullable Runnable onComplete, @Nullable ErrorCallback onError) {
+        writer.execute(() -> runAndDeliver(() -> {
+            task.run();
+            return null;
+        }, onComplete == null ? null : ignored -> onComplete.run(), onError));
+    }
+
+    static void postToMain(Runnable runnable) {
+        mainHandler.post(runnable);
+    }
+
+    static boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    private static <T> void runAndDeliver(Task<T> task, @Nullable Callback<T> callback,
+                                          @Nullable ErrorCallback onError) {
+        T result;
+        try {
+            result = task.run();
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Database task failed", e);
+            if (onError != null) {
+                mainHandler.post(() -> onError.onError(e));
+            }
+            return;
+        }
+        if (callback != null) {
+            mainHandler.post(() -> callback.onResult(result));
+        }
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        };
+    }
+}
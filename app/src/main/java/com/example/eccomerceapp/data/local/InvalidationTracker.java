@@ -0,0 +1,60 @@
+package com.example.eccomerceapp.data.local;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tells observers which tables a committed write touched, so cached query results
+ * are recomputed only when their source tables change. Observers are called on
+ * the main thread.
+ */
+public final class InvalidationTracker {
+
+    public interface Observer {
+        void onInvalidated(Set<String> tables);
+    }
+
+    private final Map<Observer, Set<String>> observers = new LinkedHashMap<>();
+
+    InvalidationTracker() {
+    }
+
+    public void addObserver(Observer observer, String... tables) {
+        synchronized (observers) {
+            observers.put(observer, new HashSet<>(Arrays.asList(tables)));
+        }
+    }
+
+    public void removeObserver(Observer observer) {
+        synchronized (observers) {
+            observers.remove(observer);
+        }
+    }
+
+    /** Called by the helper after the write touching {@code tables} has committed. */
+    void notifyTablesChanged(String... tables) {
+        Set<String> changed = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(tables)));
+        List<Observer> matching = new ArrayList<>();
+        synchronized (observers) {
+            for (Map.Entry<Observer, Set<String>> entry : observers.entrySet()) {
+                if (!Collections.disjoint(entry.getValue(), changed)) {
+                    matching.add(entry.getKey());
+                }
+            }
+        }
+        if (matching.isEmpty()) {
+            return;
+        }
+        DatabaseExecutor.postToMain(() -> {
+            for (Observer observer : matching) {
+                observer.onInvalidated(changed);
+            }
+        });
+    }
+}
@@ -1,62 +1,52 @@
 package com.example.eccomerceapp.data.local;
 
 import android.content.Context;
-import android.content.SharedPreferences;
 
+/**
+ * Screen-facing view of the session. State lives in the shared {@link SessionStore},
+ * so instances are cheap and always agree with each other.
+ */
 public class SessionManager {
 
-    private static final String PREF_NAME = "ecommerce_prefs";
-    private static final String KEY_IS_LOGGED_IN = "is_logged_in";
-    private static final String KEY_USER_NAME = "user_name";
-    private static final String KEY_USER_EMAIL = "user_email";
-    private static final String KEY_TOKEN = "auth_token";
-
-    private final SharedPreferences preferences;
+    private final SessionStore store;
 
     public SessionManager(Context context) {
-        preferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        store = SessionStore.getInstance(context);
+    }
+
+    public void logIn(String userName, String userEmail, String token) {
+        store.logIn(userName, userEmail, token);
     }
 
-    public void logIn(String userName) {
-        preferences.edit()
-                .putBoolean(KEY_IS_LOGGED_IN, true)
-                .putString(KEY_USER_NAME, userName)
-                .apply();
+    public void updateProfile(String userName, String userEmail) {
+        store.updateProfile(userName, userEmail);
     }
 
     public void logOut() {
-        preferences.edit()
-                .putBoolean(KEY_IS_LOGGED_IN, false)
-                .remove(KEY_USER_NAME)
-                .apply();
+        store.logOut();
     }
 
     public boolean isLoggedIn() {
-        return preferences.getBoolean(KEY_IS_LOGGED_IN, false);
+        return store.getSession().isLoggedIn();
     }
 
     public String getUserName() {
-        return preferences.getString(KEY_USER_NAME, "Guest");
+        return store.getSession().getUserName();
     }
 
     public void saveToken(String token) {
-        preferences.edit().putString(KEY_TOKEN, token).apply();
+        store.saveToken(token);
     }
 
     public String getToken() {
-        return preferences.getString(KEY_TOKEN, null);
+        return store.getSession().getToken();
     }
 
     public void clearToken() {
-        preferences.edit().remove(KEY_TOKEN).apply();
+        store.clearToken();
     }
-    
-    public void saveUserEmail(String email) {
-        preferences.edit().putString(KEY_USER_EMAIL, email).apply();
-    }
-    
+
     public String getUserEmail() {
-        return preferences.getString(KEY_USER_EMAIL, "");
+        return store.getSession().getUserEmail();
     }
 }
-
@@ -0,0 +1,134 @@
+package com.example.eccomerceapp.data.local;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Process-wide owner of the signed-in session. The persisted fields are read once
+ * into an immutable {@link Session}; readers such as the HTTP auth interceptor take
+ * the current snapshot with a single volatile read, and every write replaces the
+ * snapshot after putting its fields through one SharedPreferences editor.
+ */
+public final class SessionStore {
+
+    private static final String PREF_NAME = "ecommerce_prefs";
+    private static final String KEY_IS_LOGGED_IN = "is_logged_in";
+    private static final String KEY_USER_NAME = "user_name";
+    private static final String KEY_USER_EMAIL = "user_email";
+    private static final String KEY_TOKEN = "auth_token";
+
+    private static final String DEFAULT_USER_NAME = "Guest";
+
+    public static final class Session {
+        private final boolean loggedIn;
+        private final String userName;
+        private final String userEmail;
+        @Nullable
+        private final String token;
+
+        Session(boolean loggedIn, String userName, String userEmail, @Nullable String token) {
+            this.loggedIn = loggedIn;
+            this.userName = userName;
+            this.userEmail = userEmail;
+            this.token = token;
+        }
+
+        public boolean isLoggedIn() {
+            return loggedIn;
+        }
+
+        public String getUserName() {
+            return userName;
+        }
+
+        public String getUserEmail() {
+            return userEmail;
+        }
+
+        @Nullable
+        public String getToken() {
+            return token;
+        }
+    }
+
+    private static volatile SessionStore instance;
+
+    private final SharedPreferences preferences;
+    private volatile Session session;
+
+    public static SessionStore getInstance(Context context) {
+        SessionStore store = instance;
+        if (store == null) {
+            synchronized (SessionStore.class) {
+                store = instance;
+                if (store == null) {
+                    store = new SessionStore(context.getApplicationContext());
+                    instance = store;
+                }
+            }
+        }
+        return store;
+    }
+
+    private SessionStore(Context appContext) {
+        preferences = appContext.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        session = new Session(
+                preferences.getBoolean(KEY_IS_LOGGED_IN, false),
+                preferences.getString(KEY_USER_NAME, DEFAULT_USER_NAME),
+                preferences.getString(KEY_USER_EMAIL, ""),
+                preferences.getString(KEY_TOKEN, null));
+    }
+
+    /** The current snapshot; never blocks. */
+    public Session getSession() {
+        return session;
+    }
+
+    /** Stores everything a successful login or signup returns in one edit. */
+    public synchronized void logIn(String userName, String userEmail, String token) {
+        String email = userEmail != null ? userEmail : "";
+        preferences.edit()
+                .putBoolean(KEY_IS_LOGGED_IN, true)
+                .putString(KEY_USER_NAME, userName)
+                .putString(KEY_USER_EMAIL, email)
+                .putString(KEY_TOKEN, token)
+                .apply();
+        session = new Session(true, userName, email, token);
+    }
+
+    /** Updates the signed-in user's profile; a null field keeps its current value. */
+    public synchronized void updateProfile(@Nullable String userName, @Nullable String userEmail) {
+        Session current = session;
+        String name = userName != null ? userName : current.getUserName();
+        String email = userEmail != null ? userEmail : current.getUserEmail();
+        preferences.edit()
+                .putBoolean(KEY_IS_LOGGED_IN, true)
+                .putString(KEY_USER_NAME, name)
+                .putString(KEY_USER_EMAIL, email)
+                .apply();
+        session = new Session(true, name, email, current.getToken());
+    }
+
+    public synchronized void logOut() {
+        Session current = session;
+        preferences.edit()
+                .putBoolean(KEY_IS_LOGGED_IN, false)
+                .remove(KEY_USER_NAME)
+                .apply();
+        session = new Session(false, DEFAULT_USER_NAME, current.getUserEmail(), current.getToken());
+    }
+
+    public synchronized void saveToken(String token) {
+        Session current = session;
+        preferences.edit().putString(KEY_TOKEN, token).apply();
+        session = new Session(current.isLoggedIn(), current.getUserName(), current.getUserEmail(), token);
+    }
+
+    public synchronized void clearToken() {
+        Session current = session;
+        preferences.edit().remove(KEY_TOKEN).apply();
+        session = new Session(current.isLoggedIn(), current.getUserName(), current.getUserEmail(), null);
+    }
+}
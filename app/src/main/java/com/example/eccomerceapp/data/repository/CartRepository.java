@@ -3,42 +3,173 @@ package com.example.eccomerceapp.data.repository;
 import android.content.Context;
 
 import com.example.eccomerceapp.data.local.AppDatabaseHelper;
+import com.example.eccomerceapp.data.local.DatabaseExecutor;
 import com.example.eccomerceapp.model.CartItem;
+import com.example.eccomerceapp.model.Product;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class CartRepository {
 
+    public interface CartCountObserver {
+        void onCartCountChanged(int count);
+    }
+
+    // Badge count shared by every screen; main-thread only. -1 means stale.
+    private static final List<CartCountObserver> cartCountObservers = new ArrayList<>();
+    private static int cachedCartCount = -1;
+    private static int cartCountVersion;
+    private static int refreshingVersion = -1;
+    private static boolean trackingCartTables;
+
     private final AppDatabaseHelper dbHelper;
+    private final CartWriteBuffer writeBuffer;
 
     public CartRepository(Context context) {
-        this.dbHelper = new AppDatabaseHelper(context);
+        this.dbHelper = AppDatabaseHelper.getInstance(context);
+        this.writeBuffer = CartWriteBuffer.getInstance(context);
+    }
+
+    // The product's current price and discount are captured on the cart row
+    public long addToCart(Product product, int quantity, String size, String color) {
+        return dbHelper.addToCart(product.getId(), quantity, size, color,
+                product.getPrice(), product.getDiscountPercent());
     }
 
-    public long addToCart(long productId, int quantity, String size, String color) {
-        return dbHelper.addToCart(productId, quantity, size, color);
+    public void addToCartAsync(Product product, int quantity, String size, String color,
+                               DatabaseExecutor.Callback<Long> callback) {
+        addToCartAsync(product, quantity, size, color, callback, null);
+    }
+
+    /** {@code callback} gets the cart row id, or -1 when the row could not be written. */
+    public void addToCartAsync(Product product, int quantity, String size, String color,
+                               DatabaseExecutor.Callback<Long> callback, DatabaseExecutor.ErrorCallback onError) {
+        DatabaseExecutor.writeForResult(() -> addToCart(product, quantity, size, color), callback, onError);
     }
 
     public boolean updateQuantity(long cartId, int quantity) {
         return dbHelper.updateCartQuantity(cartId, quantity);
     }
 
+    public void updateQuantityAsync(long cartId, int quantity, DatabaseExecutor.Callback<Boolean> callback) {
+        DatabaseExecutor.writeForResult(() -> dbHelper.updateCartQuantity(cartId, quantity), callback);
+    }
+
+    /**
+     * Buffers a quantity change; bursts on the same row are merged and written
+     * together after a short quiet period. Call from the main thread.
+     */
+    public void setQuantityBuffered(long cartId, int quantity) {
+        writeBuffer.setQuantity(cartId, quantity);
+    }
+
+    /**
+     * Writes buffered quantity changes now and runs {@code onFlushed} once they
+     * are committed. Call from the main thread.
+     */
+    public void flushQuantities(Runnable onFlushed) {
+        writeBuffer.flush(onFlushed);
+    }
+
     public boolean removeItem(long cartId) {
         return dbHelper.removeCartItem(cartId);
     }
 
+    public void removeItemAsync(long cartId, DatabaseExecutor.Callback<Boolean> callback) {
+        writeBuffer.discard(cartId);
+        DatabaseExecutor.writeForResult(() -> dbHelper.removeCartItem(cartId), callback);
+    }
+
     public void clearCart() {
         dbHelper.clearCart();
     }
 
+    public void clearCartAsync(Runnable onComplete) {
+        DatabaseExecutor.write(dbHelper::clearCart, onComplete);
+    }
+
     public List<CartItem> getCartItems() {
         return dbHelper.getCartItems();
     }
 
+    public void getCartItemsAsync(DatabaseExecutor.Callback<List<CartItem>> callback) {
+        DatabaseExecutor.read(dbHelper::getCartItems, callback);
+    }
+
+    public double getCartTotal() {
+        return dbHelper.getCartTotal();
+    }
+
+    public void getCartTotalAsync(DatabaseExecutor.Callback<Double> callback) {
+        DatabaseExecutor.read(dbHelper::getCartTotal, callback);
+    }
+
+    public int repriceCart() {
+        return dbHelper.repriceCart();
+    }
+
+    public void repriceCartAsync(DatabaseExecutor.Callback<Integer> callback) {
+        DatabaseExecutor.writeForResult(dbHelper::repriceCart, callback);
+    }
+
     public int getCartCount() {
         return dbHelper.getCartItemCount();
     }
 
+    public void getCartCountAsync(DatabaseExecutor.Callback<Integer> callback) {
+        DatabaseExecutor.read(dbHelper::getCartItemCount, callback);
+    }
+
+    /**
+     * Delivers the cart count now if it is cached, and again after every cart or
+     * product write. The count is only re-queried after such a write.
+     */
+    public void observeCartCount(CartCountObserver observer) {
+        if (!trackingCartTables) {
+            // Products count too: the badge joins against them, so catalog deletes change it
+            dbHelper.getInvalidationTracker().addObserver(tables -> invalidateCartCount(dbHelper),
+                    AppDatabaseHelper.TABLE_CART, AppDatabaseHelper.TABLE_PRODUCT);
+            trackingCartTables = true;
+        }
+        cartCountObservers.add(observer);
+        if (cachedCartCount >= 0) {
+            observer.onCartCountChanged(cachedCartCount);
+        } else {
+            refreshCartCount(dbHelper);
+        }
+    }
+
+    public void removeCartCountObserver(CartCountObserver observer) {
+        cartCountObservers.remove(observer);
+    }
+
+    private static void invalidateCartCount(AppDatabaseHelper dbHelper) {
+        cachedCartCount = -1;
+        cartCountVersion++;
+        if (!cartCountObservers.isEmpty()) {
+            refreshCartCount(dbHelper);
+        }
+    }
+
+    private static void refreshCartCount(AppDatabaseHelper dbHelper) {
+        int version = cartCountVersion;
+        if (refreshingVersion == version) {
+            return;
+        }
+        refreshingVersion = version;
+        DatabaseExecutor.read(dbHelper::getCartItemCount, count -> {
+            if (version != cartCountVersion) {
+                // A write landed while counting; the refresh it triggered will deliver
+                return;
+            }
+            cachedCartCount = count;
+            for (CartCountObserver observer : new ArrayList<>(cartCountObservers)) {
+                observer.onCartCountChanged(count);
+            }
+        });
+    }
+
     public AppDatabaseHelper getDbHelper() {
         return dbHelper;
     }
@@ -47,12 +178,15 @@ public class CartRepository {
         return dbHelper.getCartRawData();
     }
 
-    public void cleanupOrphanedEntries() {
-        dbHelper.cleanupOrphanedCartEntries();
+    public void getCartRawDataAsync(DatabaseExecutor.Callback<List<AppDatabaseHelper.CartRawData>> callback) {
+        DatabaseExecutor.read(dbHelper::getCartRawData, callback);
     }
 
     public void clearAllCartEntries() {
         dbHelper.clearAllCartEntries();
     }
-}
 
+    public void clearAllCartEntriesAsync(Runnable onComplete) {
+        DatabaseExecutor.write(dbHelper::clearAllCartEntries, onComplete);
+    }
+}
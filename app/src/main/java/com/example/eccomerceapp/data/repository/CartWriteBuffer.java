@@ -0,0 +1,151 @@
+package com.example.eccomerceapp.data.repository;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+
+import com.example.eccomerceapp.data.local.AppDatabaseHelper;
+import com.example.eccomerceapp.data.local.DatabaseExecutor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write-behind buffer for cart quantity changes. A burst of +/- taps collapses to
+ * the last quantity per cart row, and the rows are written in one transaction once
+ * the taps go quiet or the screen pauses. Each change is also committed to a
+ * SharedPreferences journal on the database writer thread, queued ahead of the flush
+ * that writes it, and anything left in the journal by a killed process is replayed on
+ * the next start. A change is durable once its journal commit has run; a kill before
+ * that, while earlier writes are still queued, can lose it. Main thread only.
+ */
+final class CartWriteBuffer {
+
+    private static final String PREF_NAME = "cart_write_buffer";
+    private static final long QUIET_PERIOD_MS = 600;
+
+    private static CartWriteBuffer instance;
+
+    private final AppDatabaseHelper dbHelper;
+    private final SharedPreferences journal;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = () -> flush(null);
+    private final Map<Long, Integer> pending = new HashMap<>();
+    private int flushesInFlight;
+
+    static CartWriteBuffer getInstance(Context context) {
+        if (instance == null) {
+            instance = new CartWriteBuffer(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private CartWriteBuffer(Context appContext) {
+        dbHelper = AppDatabaseHelper.getInstance(appContext);
+        journal = appContext.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        replayJournal();
+    }
+
+    void setQuantity(long cartId, int quantity) {
+        pending.put(cartId, quantity);
+        // commit() blocks until the journal is on disk, so it runs on the writer rather than here
+        DatabaseExecutor.write(() -> journal.edit().putInt(String.valueOf(cartId), quantity).commit(), null);
+        handler.removeCallbacks(flushRunnable);
+        handler.postDelayed(flushRunnable, QUIET_PERIOD_MS);
+    }
+
+    /** Drops a pending change, e.g. because the row is being removed. */
+    void discard(long cartId) {
+        pending.remove(cartId);
+        DatabaseExecutor.write(() -> journal.edit().remove(String.valueOf(cartId)).commit(), null);
+    }
+
+    /**
+     * Writes pending quantities now. {@code onFlushed} runs once every change made so
+     * far is committed, so reads issued from it see the buffered quantities. A batch
+     * whose write fails goes back into the buffer and {@code onFlushed} still runs.
+     */
+    void flush(@Nullable Runnable onFlushed) {
+        handler.removeCallbacks(flushRunnable);
+        if (pending.isEmpty()) {
+            if (onFlushed == null) {
+                return;
+            }
+            if (flushesInFlight == 0) {
+                onFlushed.run();
+            } else {
+                // The writer is serial, so an empty write completes after the flushes ahead of it
+                DatabaseExecutor.write(() -> { }, onFlushed);
+            }
+            return;
+        }
+        Map<Long, Integer> batch = new HashMap<>(pending);
+        pending.clear();
+        writeBatch(batch, onFlushed);
+    }
+
+    private void writeBatch(Map<Long, Integer> batch, @Nullable Runnable onFlushed) {
+        flushesInFlight++;
+        DatabaseExecutor.write(() -> {
+            dbHelper.updateCartQuantities(batch);
+            clearJournal(batch);
+        }, () -> {
+            flushesInFlight--;
+            if (onFlushed != null) {
+                onFlushed.run();
+            }
+        }, error -> {
+            flushesInFlight--;
+            // Put the batch back for the next flush; the journal still holds it
+            for (Map.Entry<Long, Integer> entry : batch.entrySet()) {
+                if (!pending.containsKey(entry.getKey())) {
+                    pending.put(entry.getKey(), entry.getValue());
+                }
+            }
+            if (onFlushed != null) {
+                onFlushed.run();
+            }
+        });
+    }
+
+    /**
+     * Runs on the writer right after the batch commits. A newer tap on the same row
+     * queued its journal entry behind this task, so removing every written row is safe.
+     */
+    private void clearJournal(Map<Long, Integer> written) {
+        SharedPreferences.Editor editor = journal.edit();
+        for (Long cartId : written.keySet()) {
+            editor.remove(String.valueOf(cartId));
+        }
+        editor.commit();
+    }
+
+    private void replayJournal() {
+        Map<Long, Integer> leftOver = new HashMap<>();
+        List<String> invalidKeys = new ArrayList<>();
+        for (Map.Entry<String, ?> entry : journal.getAll().entrySet()) {
+            try {
+                leftOver.put(Long.parseLong(entry.getKey()), (Integer) entry.getValue());
+            } catch (NumberFormatException | ClassCastException e) {
+                invalidKeys.add(entry.getKey());
+            }
+        }
+        if (!invalidKeys.isEmpty()) {
+            DatabaseExecutor.write(() -> {
+                SharedPreferences.Editor editor = journal.edit();
+                for (String key : invalidKeys) {
+                    editor.remove(key);
+                }
+                editor.commit();
+            }, null);
+        }
+        if (!leftOver.isEmpty()) {
+            writeBatch(leftOver, null);
+        }
+    }
+}
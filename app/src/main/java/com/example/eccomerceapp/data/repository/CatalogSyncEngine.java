@@ -0,0 +1,133 @@
+package com.example.eccomerceapp.data.repository;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.Nullable;
+
+import com.example.eccomerceapp.data.api.ApiClient;
+import com.example.eccomerceapp.data.api.ApiMapper;
+import com.example.eccomerceapp.data.api.ApiService;
+import com.example.eccomerceapp.data.api.model.ApiCategory;
+import com.example.eccomerceapp.data.api.model.ApiProductChanges;
+import com.example.eccomerceapp.data.local.AppDatabaseHelper;
+import com.example.eccomerceapp.data.local.DatabaseExecutor;
+import com.example.eccomerceapp.model.Category;
+import com.example.eccomerceapp.model.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Pulls catalog changes from the server into the local categories and products
+ * tables. Only products updated or deleted since the last watermark are fetched;
+ * the first sync takes a full snapshot. One sync runs at a time; a caller arriving
+ * while it runs is told when it finishes. Main thread only, where Retrofit and
+ * {@link DatabaseExecutor} deliver their callbacks.
+ */
+public class CatalogSyncEngine {
+
+    public interface Listener {
+        /** Called on the main thread; {@code productsChanged} is true when local products were modified. */
+        void onSyncFinished(boolean productsChanged);
+    }
+
+    private static final String PREF_NAME = "catalog_sync";
+    private static final String KEY_PRODUCTS_SYNCED_AT = "products_synced_at";
+
+    // Every caller of the running sync, including ones that arrived after it started
+    private static final List<Listener> waitingListeners = new ArrayList<>();
+    private static boolean syncInFlight;
+
+    private final AppDatabaseHelper dbHelper;
+    private final ApiService apiService;
+    private final SharedPreferences preferences;
+
+    public CatalogSyncEngine(Context context) {
+        dbHelper = AppDatabaseHelper.getInstance(context);
+        apiService = ApiClient.getInstance();
+        preferences = context.getApplicationContext().getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    }
+
+    public void sync(@Nullable Listener listener) {
+        if (listener != null) {
+            waitingListeners.add(listener);
+        }
+        if (syncInFlight) {
+            // Another screen already started a sync; its result lands in the same tables
+            // and reaches this listener when it finishes
+            return;
+        }
+        syncInFlight = true;
+        String since = preferences.getString(KEY_PRODUCTS_SYNCED_AT, null);
+        apiService.getProductChanges(since).enqueue(new Callback<ApiProductChanges>() {
+            @Override
+            public void onResponse(Call<ApiProductChanges> call, Response<ApiProductChanges> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    fetchCategories(response.body());
+                } else {
+                    finish(false);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiProductChanges> call, Throwable t) {
+                // Offline: keep serving the local catalog
+                finish(false);
+            }
+        });
+    }
+
+    private void fetchCategories(ApiProductChanges changes) {
+        apiService.getCategories().enqueue(new Callback<List<ApiCategory>>() {
+            @Override
+            public void onResponse(Call<List<ApiCategory>> call, Response<List<ApiCategory>> response) {
+                List<Category> categories = response.isSuccessful() && response.body() != null
+                        ? ApiMapper.toCategoryList(response.body())
+                        : null;
+                applyChanges(categories, changes);
+            }
+
+            @Override
+            public void onFailure(Call<List<ApiCategory>> call, Throwable t) {
+                // Product changes are still worth applying without fresh categories
+                applyChanges(null, changes);
+            }
+        });
+    }
+
+    private void applyChanges(@Nullable List<Category> categories, ApiProductChanges changes) {
+        List<Product> products = ApiMapper.toProductList(changes.products);
+        List<Category> referencedCategories = ApiMapper.toEmbeddedCategories(changes.products);
+        List<Long> deletedIds = changes.deletedIds != null ? changes.deletedIds : new ArrayList<>();
+        boolean fullSnapshot = changes.full != null && changes.full;
+        DatabaseExecutor.writeForResult(
+                () -> dbHelper.applyCatalogChanges(categories, referencedCategories, products,
+                        deletedIds, fullSnapshot),
+                productsChanged -> {
+                    // Advance the watermark only once the changes are committed
+                    if (changes.syncedAt != null) {
+                        preferences.edit().putString(KEY_PRODUCTS_SYNCED_AT, changes.syncedAt).apply();
+                    }
+                    finish(productsChanged);
+                },
+                error -> {
+                    // Leave the watermark where it is so the same delta is retried next time
+                    finish(false);
+                });
+    }
+
+    private static void finish(boolean changed) {
+        syncInFlight = false;
+        // Copied first: a listener may start the next sync
+        List<Listener> listeners = new ArrayList<>(waitingListeners);
+        waitingListeners.clear();
+        for (Listener listener : listeners) {
+            listener.onSyncFinished(changed);
+        }
+    }
+}
@@ -2,37 +2,143 @@ package com.example.eccomerceapp.data.repository;
 
 import android.content.Context;
 
+import androidx.annotation.Nullable;
+
 import com.example.eccomerceapp.data.local.AppDatabaseHelper;
+import com.example.eccomerceapp.data.local.DatabaseExecutor;
 import com.example.eccomerceapp.model.Product;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class FavoritesRepository {
 
+    // Favorited product ids shared by every repository instance, loaded from disk once.
+    // Ids whose product a catalog sync deleted (the row cascades away) may linger; they
+    // are never displayed, so lookups are unaffected.
+    private static final LongHashSet favoriteIds = new LongHashSet();
+    private static boolean favoriteIdsLoaded;
+    // Ids toggled before the load finished; the in-memory state wins over the loaded one
+    private static LongHashSet editedBeforeLoad = new LongHashSet();
+    // Favorite writes queued per id, so a failed write is only rolled back when no later
+    // toggle of the same id is still pending. Main thread only.
+    private static final Map<Long, Integer> writesInFlight = new HashMap<>();
+
     private final AppDatabaseHelper dbHelper;
 
     public FavoritesRepository(Context context) {
-        this.dbHelper = new AppDatabaseHelper(context);
+        this.dbHelper = AppDatabaseHelper.getInstance(context);
+    }
+
+    /**
+     * Loads the favorite id set in the background if needed and then runs
+     * {@code onReady} on the main thread. Until then {@link #isFavorite} reports only
+     * the ids toggled so far.
+     */
+    public void loadFavoriteIds(@Nullable Runnable onReady) {
+        synchronized (favoriteIds) {
+            if (favoriteIdsLoaded) {
+                if (onReady != null) {
+                    onReady.run();
+                }
+                return;
+            }
+        }
+        DatabaseExecutor.read(dbHelper::getFavoriteProductIds, ids -> {
+            synchronized (favoriteIds) {
+                if (!favoriteIdsLoaded) {
+                    for (long id : ids) {
+                        if (!editedBeforeLoad.contains(id)) {
+                            favoriteIds.add(id);
+                        }
+                    }
+                    favoriteIdsLoaded = true;
+                    editedBeforeLoad = new LongHashSet();
+                }
+            }
+            if (onReady != null) {
+                onReady.run();
+            }
+        });
     }
 
-    public boolean addFavorite(long productId) {
-        return dbHelper.addFavorite(productId);
+    public void addFavorite(long productId) {
+        addFavorite(productId, null);
     }
 
-    public boolean removeFavorite(long productId) {
-        return dbHelper.removeFavorite(productId);
+    /**
+     * Marks the product as a favorite right away and writes it in the background.
+     * If the write fails the mark is undone and {@code onRolledBack} runs on the main thread.
+     */
+    public void addFavorite(long productId, @Nullable Runnable onRolledBack) {
+        setFavorite(productId, true, onRolledBack);
+    }
+
+    public void removeFavorite(long productId) {
+        removeFavorite(productId, null);
+    }
+
+    /** Counterpart of {@link #addFavorite(long, Runnable)}. */
+    public void removeFavorite(long productId, @Nullable Runnable onRolledBack) {
+        setFavorite(productId, false, onRolledBack);
+    }
+
+    private void setFavorite(long productId, boolean favorite, @Nullable Runnable onRolledBack) {
+        synchronized (favoriteIds) {
+            if (favorite) {
+                favoriteIds.add(productId);
+            } else {
+                favoriteIds.remove(productId);
+            }
+            if (!favoriteIdsLoaded) {
+                editedBeforeLoad.add(productId);
+            }
+        }
+        writesInFlight.merge(productId, 1, Integer::sum);
+        DatabaseExecutor.writeForResult(
+                () -> favorite ? dbHelper.addFavorite(productId) : dbHelper.removeFavorite(productId),
+                ignored -> finishWrite(productId),
+                error -> {
+                    // A later toggle of the same id decides the final state once it is written
+                    if (finishWrite(productId)) {
+                        return;
+                    }
+                    synchronized (favoriteIds) {
+                        if (favorite) {
+                            favoriteIds.remove(productId);
+                        } else {
+                            favoriteIds.add(productId);
+                        }
+                    }
+                    if (onRolledBack != null) {
+                        onRolledBack.run();
+                    }
+                });
+    }
+
+    // Returns true when more writes for the id are still queued
+    private static boolean finishWrite(long productId) {
+        Integer remaining = writesInFlight.get(productId);
+        if (remaining == null || remaining <= 1) {
+            writesInFlight.remove(productId);
+            return false;
+        }
+        writesInFlight.put(productId, remaining - 1);
+        return true;
     }
 
     public boolean isFavorite(long productId) {
-        return dbHelper.isFavorite(productId);
+        synchronized (favoriteIds) {
+            return favoriteIds.contains(productId);
+        }
     }
 
     public List<Product> getFavoriteProducts() {
         return dbHelper.getFavoriteProducts();
     }
 
-    public void cleanupOrphanedFavorites() {
-        dbHelper.cleanupOrphanedFavorites();
+    public void getFavoriteProductsAsync(DatabaseExecutor.Callback<List<Product>> callback) {
+        DatabaseExecutor.read(dbHelper::getFavoriteProducts, callback);
     }
 }
-
@@ -0,0 +1,107 @@
+package com.example.eccomerceapp.data.repository;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of primitive longs, so id lookups on the bind path neither
+ * box nor allocate. Not thread-safe; callers synchronize.
+ */
+final class LongHashSet {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] slots;
+    private int size;
+    private boolean containsEmptyKey;
+
+    LongHashSet() {
+        slots = newSlots(16);
+    }
+
+    boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsEmptyKey;
+        }
+        int mask = slots.length - 1;
+        for (int i = mix(value) & mask; ; i = (i + 1) & mask) {
+            long slot = slots[i];
+            if (slot == EMPTY) {
+                return false;
+            }
+            if (slot == value) {
+                return true;
+            }
+        }
+    }
+
+    boolean add(long value) {
+        if (value == EMPTY) {
+            boolean added = !containsEmptyKey;
+            containsEmptyKey = true;
+            return added;
+        }
+        if ((size + 1) * 2 > slots.length) {
+            resize(slots.length * 2);
+        }
+        int mask = slots.length - 1;
+        for (int i = mix(value) & mask; ; i = (i + 1) & mask) {
+            long slot = slots[i];
+            if (slot == value) {
+                return false;
+            }
+            if (slot == EMPTY) {
+                slots[i] = value;
+                size++;
+                return true;
+            }
+        }
+    }
+
+    boolean remove(long value) {
+        if (value == EMPTY) {
+            boolean removed = containsEmptyKey;
+            containsEmptyKey = false;
+            return removed;
+        }
+        int mask = slots.length - 1;
+        int i = mix(value) & mask;
+        while (slots[i] != value) {
+            if (slots[i] == EMPTY) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[i] = EMPTY;
+        size--;
+        // Re-insert the rest of the probe run so later lookups do not stop at the hole
+        for (int j = (i + 1) & mask; slots[j] != EMPTY; j = (j + 1) & mask) {
+            long displaced = slots[j];
+            slots[j] = EMPTY;
+            size--;
+            add(displaced);
+        }
+        return true;
+    }
+
+    private void resize(int capacity) {
+        long[] old = slots;
+        slots = newSlots(capacity);
+        size = 0;
+        for (long value : old) {
+            if (value != EMPTY) {
+                add(value);
+            }
+        }
+    }
+
+    private static long[] newSlots(int capacity) {
+        long[] slots = new long[capacity];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.eccomerceapp.data.repository;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.eccomerceapp.data.local.AppDatabaseHelper;
+import com.example.eccomerceapp.data.local.DatabaseExecutor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs database housekeeping (planner statistics, incremental vacuum) on the
+ * writer thread once the main thread goes idle after the first frame, at most
+ * once per {@code minIntervalMs}. Each task's duration is logged and kept in
+ * SharedPreferences.
+ */
+public class MaintenanceScheduler {
+
+    public static final long DEFAULT_MIN_INTERVAL_MS = TimeUnit.HOURS.toMillis(24);
+
+    private static final String TAG = "MaintenanceScheduler";
+    private static final String PREF_NAME = "db_maintenance";
+    private static final String KEY_LAST_RUN_AT = "last_run_at";
+    private static final String KEY_DURATION_PREFIX = "duration_ms_";
+    // Bounds one run's vacuum work; the rest is picked up next time
+    private static final int VACUUM_PAGES_PER_RUN = 256;
+
+    private static final AtomicBoolean running = new AtomicBoolean(false);
+
+    private final AppDatabaseHelper dbHelper;
+    private final SharedPreferences preferences;
+    private final long minIntervalMs;
+
+    public MaintenanceScheduler(Context context) {
+        this(context, DEFAULT_MIN_INTERVAL_MS);
+    }
+
+    public MaintenanceScheduler(Context context, long minIntervalMs) {
+        dbHelper = AppDatabaseHelper.getInstance(context);
+        preferences = context.getApplicationContext().getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        this.minIntervalMs = minIntervalMs;
+    }
+
+    /** Call from the main thread, e.g. in onCreate; the run waits until the first frame is drawn. */
+    public void scheduleAfterFirstFrame() {
+        Looper.myQueue().addIdleHandler(() -> {
+            runIfDue();
+            return false;
+        });
+    }
+
+    public void runIfDue() {
+        long lastRunAt = preferences.getLong(KEY_LAST_RUN_AT, 0L);
+        if (System.currentTimeMillis() - lastRunAt < minIntervalMs) {
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        DatabaseExecutor.write(this::runTasks, () -> running.set(false), error -> running.set(false));
+    }
+
+    private void runTasks() {
+        SharedPreferences.Editor editor = preferences.edit();
+        runTimed(editor, "optimize", dbHelper::optimize);
+        runTimed(editor, "incremental_vacuum", () -> dbHelper.incrementalVacuum(VACUUM_PAGES_PER_RUN));
+        // Stamped only after a completed run so an interrupted one is retried
+        editor.putLong(KEY_LAST_RUN_AT, System.currentTimeMillis());
+        editor.apply();
+    }
+
+    private void runTimed(SharedPreferences.Editor editor, String name, Runnable task) {
+        long start = SystemClock.elapsedRealtime();
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            // One failing task should not stop the rest of the run
+            Log.w(TAG, "Maintenance task " + name + " failed", e);
+        }
+        long durationMs = SystemClock.elapsedRealtime() - start;
+        editor.putLong(KEY_DURATION_PREFIX + name, durationMs);
+        Log.i(TAG, name + " took " + durationMs + " ms");
+    }
+}
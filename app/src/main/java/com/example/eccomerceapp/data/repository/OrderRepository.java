@@ -1,14 +1,19 @@
 package com.example.eccomerceapp.data.repository;
 
 import android.content.Context;
+import android.util.Log;
 
 import com.example.eccomerceapp.R;
 import com.example.eccomerceapp.data.api.ApiService;
 import com.example.eccomerceapp.data.api.ApiClient;
 import com.example.eccomerceapp.data.api.model.ApiOrder;
 import com.example.eccomerceapp.data.local.AppDatabaseHelper;
+import com.example.eccomerceapp.data.local.DatabaseExecutor;
+import com.example.eccomerceapp.model.MonthlySpend;
 import com.example.eccomerceapp.model.Order;
+import com.example.eccomerceapp.model.OrderStats;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import retrofit2.Call;
@@ -17,13 +22,15 @@ import retrofit2.Response;
 
 public class OrderRepository {
 
+    private static final String TAG = "OrderRepository";
+
     private final AppDatabaseHelper dbHelper;
     private final Context appContext;
     private final ApiService apiService;
 
     public OrderRepository(Context context) {
         this.appContext = context.getApplicationContext();
-        dbHelper = new AppDatabaseHelper(context);
+        dbHelper = AppDatabaseHelper.getInstance(context);
         apiService = ApiClient.getInstance();
     }
 
@@ -37,27 +44,77 @@ public class OrderRepository {
         return dbHelper.insertOrder(customerName, phone, addressLine, city, total, status, timestamp);
     }
 
+    public void placeOrderAsync(String customerName,
+                                String phone,
+                                String addressLine,
+                                String city,
+                                double total,
+                                DatabaseExecutor.Callback<Long> callback,
+                                DatabaseExecutor.ErrorCallback onError) {
+        DatabaseExecutor.writeForResult(() -> placeOrder(customerName, phone, addressLine, city, total),
+                callback, onError);
+    }
+
     public List<Order> getOrders() {
         return dbHelper.getOrders();
     }
 
+    public void getOrdersAsync(DatabaseExecutor.Callback<List<Order>> callback) {
+        DatabaseExecutor.read(dbHelper::getOrders, callback);
+    }
+
+    public void getOrderStatsAsync(DatabaseExecutor.Callback<OrderStats> callback) {
+        DatabaseExecutor.read(dbHelper::getOrderStats, callback);
+    }
+
+    public void getMonthlySpendAsync(int monthLimit, DatabaseExecutor.Callback<List<MonthlySpend>> callback) {
+        DatabaseExecutor.read(() -> dbHelper.getMonthlySpend(monthLimit), callback);
+    }
+
+    public List<Order> getOrdersPage(Order after, int pageSize) {
+        if (after == null) {
+            return dbHelper.getOrdersPage(Long.MAX_VALUE, Long.MAX_VALUE, pageSize);
+        }
+        return dbHelper.getOrdersPage(after.getCreatedAt(), after.getId(), pageSize);
+    }
+
+    public void getOrdersPageAsync(Order after, int pageSize, DatabaseExecutor.Callback<List<Order>> callback) {
+        getOrdersPageAsync(after, pageSize, callback, null);
+    }
+
+    public void getOrdersPageAsync(Order after, int pageSize, DatabaseExecutor.Callback<List<Order>> callback,
+                                   DatabaseExecutor.ErrorCallback onError) {
+        DatabaseExecutor.read(() -> getOrdersPage(after, pageSize), callback, onError);
+    }
+
     public void clearAllOrders() {
         dbHelper.clearAllOrders();
     }
 
+    public void clearAllOrdersAsync(Runnable onComplete) {
+        DatabaseExecutor.write(dbHelper::clearAllOrders, onComplete);
+    }
+
     public void syncOrdersFromServer(Runnable onComplete) {
         // Get customer info from most recent order
-        List<Order> localOrders = dbHelper.getOrders();
-        if (localOrders.isEmpty()) {
-            // No local orders, can't sync
+        getOrdersPageAsync(null, 1, localOrders -> {
+            if (localOrders.isEmpty()) {
+                // No local orders, can't sync
+                if (onComplete != null) {
+                    onComplete.run();
+                }
+                return;
+            }
+            fetchCustomerOrders(localOrders.get(0), onComplete);
+        }, error -> {
             if (onComplete != null) {
                 onComplete.run();
             }
-            return;
-        }
+        });
+    }
 
+    private void fetchCustomerOrders(Order mostRecentOrder, Runnable onComplete) {
         // Use customer info from most recent order
-        Order mostRecentOrder = localOrders.get(0);
         String customerName = mostRecentOrder.getCustomerName();
         String phone = mostRecentOrder.getPhone();
 
@@ -66,10 +123,11 @@ public class OrderRepository {
             @Override
             public void onResponse(Call<List<ApiOrder>> call, Response<List<ApiOrder>> response) {
                 if (response.isSuccessful() && response.body() != null) {
-                    // Sync each order to local database
+                    // Apply the whole batch in one transaction
+                    List<Order> serverOrders = new ArrayList<>();
                     for (ApiOrder apiOrder : response.body()) {
                         if (apiOrder.id != null && apiOrder.customerName != null && apiOrder.total != null && apiOrder.createdAt != null) {
-                            dbHelper.updateOrInsertOrder(
+                            serverOrders.add(new Order(
                                 apiOrder.id,
                                 apiOrder.customerName,
                                 apiOrder.phone != null ? apiOrder.phone : "",
@@ -78,9 +136,21 @@ public class OrderRepository {
                                 apiOrder.total,
                                 apiOrder.status != null ? apiOrder.status : "processing",
                                 apiOrder.createdAt * 1000 // Convert from seconds to milliseconds
-                            );
+                            ));
                         }
                     }
+                    DatabaseExecutor.writeForResult(() -> dbHelper.syncOrders(serverOrders), changed -> {
+                        if (onComplete != null) {
+                            onComplete.run();
+                        }
+                    }, error -> {
+                        // The transaction rolled back; the local orders are still worth showing
+                        Log.w(TAG, "Saving " + serverOrders.size() + " server orders failed", error);
+                        if (onComplete != null) {
+                            onComplete.run();
+                        }
+                    });
+                    return;
                 }
                 if (onComplete != null) {
                     onComplete.run();
@@ -2,34 +2,185 @@ package com.example.eccomerceapp.data.repository;
 
 import android.content.Context;
 
+import com.example.eccomerceapp.data.api.ApiClient;
+import com.example.eccomerceapp.data.api.ApiMapper;
+import com.example.eccomerceapp.data.api.model.ApiProduct;
 import com.example.eccomerceapp.data.local.AppDatabaseHelper;
+import com.example.eccomerceapp.data.local.DatabaseExecutor;
 import com.example.eccomerceapp.model.Category;
 import com.example.eccomerceapp.model.Product;
+import com.example.eccomerceapp.model.ProductVariants;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
 
 public class ProductRepository {
 
+    /** Ids per batch request; the server accepts up to 100. */
+    public static final int DEFAULT_MAX_IDS_PER_REQUEST = 50;
+
     private final AppDatabaseHelper dbHelper;
 
     public ProductRepository(Context context) {
-        this.dbHelper = new AppDatabaseHelper(context);
+        this.dbHelper = AppDatabaseHelper.getInstance(context);
     }
 
     public List<Category> loadCategories() {
         return dbHelper.getCategories();
     }
 
+    public void loadCategoriesAsync(DatabaseExecutor.Callback<List<Category>> callback) {
+        DatabaseExecutor.read(dbHelper::getCategories, callback);
+    }
+
     public List<Product> loadProducts(Long categoryId) {
         return dbHelper.getProducts(categoryId);
     }
 
+    public void loadProductsAsync(Long categoryId, DatabaseExecutor.Callback<List<Product>> callback) {
+        DatabaseExecutor.read(() -> dbHelper.getProducts(categoryId), callback);
+    }
+
+    public void findProductAsync(long id, DatabaseExecutor.Callback<Product> callback) {
+        DatabaseExecutor.read(() -> dbHelper.getProductById(id), callback);
+    }
+
+    public void loadVariantsAsync(long productId, DatabaseExecutor.Callback<ProductVariants> callback) {
+        DatabaseExecutor.read(() -> dbHelper.getProductVariants(productId), callback);
+    }
+
+    /**
+     * Stores products fetched directly from the API so cart and favorites rows can
+     * reference them. Their categories are stored too when not yet local.
+     */
+    public void saveProductsAsync(List<ApiProduct> apiProducts, Runnable onSaved,
+                                  DatabaseExecutor.ErrorCallback onError) {
+        List<Product> products = ApiMapper.toProductList(apiProducts);
+        List<Category> categories = ApiMapper.toEmbeddedCategories(apiProducts);
+        DatabaseExecutor.write(() -> dbHelper.applyCatalogChanges(null, categories, products,
+                Collections.emptyList(), false), onSaved, onError);
+    }
+
+    public void fetchProductsByIdsAsync(Collection<Long> ids, DatabaseExecutor.Callback<Map<Long, Product>> callback) {
+        fetchProductsByIdsAsync(ids, DEFAULT_MAX_IDS_PER_REQUEST, callback);
+    }
+
+    /**
+     * Resolves products from the API with one request per {@code maxIdsPerRequest}
+     * ids instead of one per product. The callback runs on the main thread once every
+     * chunk has finished; ids that no longer exist or whose chunk failed are absent.
+     */
+    public void fetchProductsByIdsAsync(Collection<Long> ids, int maxIdsPerRequest,
+                                        DatabaseExecutor.Callback<Map<Long, Product>> callback) {
+        fetchApiProductsByIds(ids, maxIdsPerRequest, apiProducts -> {
+            Map<Long, Product> productsById = new HashMap<>();
+            for (Product product : ApiMapper.toProductList(apiProducts)) {
+                productsById.put(product.getId(), product);
+            }
+            callback.onResult(productsById);
+        });
+    }
+
+    /**
+     * Fetches the given products in batched requests and stores them with their
+     * categories. {@code onRefreshed} gets the number of products stored, 0 when
+     * none could be fetched (e.g. offline), in which case nothing is written.
+     */
+    public void refreshProductsAsync(Collection<Long> ids, DatabaseExecutor.Callback<Integer> onRefreshed,
+                                     DatabaseExecutor.ErrorCallback onError) {
+        fetchApiProductsByIds(ids, DEFAULT_MAX_IDS_PER_REQUEST, apiProducts -> {
+            if (apiProducts.isEmpty()) {
+                onRefreshed.onResult(0);
+                return;
+            }
+            saveProductsAsync(apiProducts, () -> onRefreshed.onResult(apiProducts.size()), onError);
+        });
+    }
+
+    private void fetchApiProductsByIds(Collection<Long> ids, int maxIdsPerRequest,
+                                       DatabaseExecutor.Callback<List<ApiProduct>> callback) {
+        if (maxIdsPerRequest < 1) {
+            throw new IllegalArgumentException("maxIdsPerRequest must be positive");
+        }
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<ApiProduct> fetched = new ArrayList<>();
+        if (distinctIds.isEmpty()) {
+            callback.onResult(fetched);
+            return;
+        }
+        // Retrofit delivers callbacks on the main thread, so only that thread touches the list
+        AtomicInteger pendingChunks = new AtomicInteger((distinctIds.size() + maxIdsPerRequest - 1) / maxIdsPerRequest);
+        for (int start = 0; start < distinctIds.size(); start += maxIdsPerRequest) {
+            List<Long> chunk = distinctIds.subList(start, Math.min(start + maxIdsPerRequest, distinctIds.size()));
+            ApiClient.getInstance().getProductsByIds(joinIds(chunk)).enqueue(new Callback<List<ApiProduct>>() {
+                @Override
+                public void onResponse(Call<List<ApiProduct>> call, Response<List<ApiProduct>> response) {
+                    if (response.isSuccessful() && response.body() != null) {
+                        fetched.addAll(response.body());
+                    }
+                    chunkFinished();
+                }
+
+                @Override
+                public void onFailure(Call<List<ApiProduct>> call, Throwable t) {
+                    chunkFinished();
+                }
+
+                private void chunkFinished() {
+                    if (pendingChunks.decrementAndGet() == 0) {
+                        callback.onResult(fetched);
+                    }
+                }
+            });
+        }
+    }
+
+    private static String joinIds(List<Long> ids) {
+        StringBuilder joined = new StringBuilder();
+        for (Long id : ids) {
+            if (joined.length() > 0) {
+                joined.append(',');
+            }
+            joined.append(id);
+        }
+        return joined.toString();
+    }
+
+    public List<Product> loadProductsPage(Long categoryId, Product after, int pageSize) {
+        long beforeId = after == null ? Long.MAX_VALUE : after.getId();
+        return dbHelper.getProductsPage(categoryId, beforeId, pageSize);
+    }
+
+    public void loadProductsPageAsync(Long categoryId, Product after, int pageSize,
+                                      DatabaseExecutor.Callback<List<Product>> callback) {
+        loadProductsPageAsync(categoryId, after, pageSize, callback, null);
+    }
+
+    public void loadProductsPageAsync(Long categoryId, Product after, int pageSize,
+                                      DatabaseExecutor.Callback<List<Product>> callback,
+                                      DatabaseExecutor.ErrorCallback onError) {
+        DatabaseExecutor.read(() -> loadProductsPage(categoryId, after, pageSize), callback, onError);
+    }
+
     public List<Product> searchProducts(String keyword) {
         return dbHelper.searchProducts(keyword);
     }
 
+    public void searchProductsAsync(String keyword, DatabaseExecutor.Callback<List<Product>> callback) {
+        DatabaseExecutor.read(() -> dbHelper.searchProducts(keyword), callback);
+    }
+
     public Product findProduct(long id) {
         return dbHelper.getProductById(id);
     }
 }
-
@@ -6,13 +6,24 @@ public class CartItem {
     private final int quantity;
     private final String selectedSize;
     private final String selectedColor;
+    // Price and discount captured when the item was added, refreshed by cart revalidation
+    private final double unitPrice;
+    private final double discountPercent;
 
-    public CartItem(long id, Product product, int quantity, String selectedSize, String selectedColor) {
+    public CartItem(long id,
+                    Product product,
+                    int quantity,
+                    String selectedSize,
+                    String selectedColor,
+                    double unitPrice,
+                    double discountPercent) {
         this.id = id;
         this.product = product;
         this.quantity = quantity;
         this.selectedSize = selectedSize;
         this.selectedColor = selectedColor;
+        this.unitPrice = unitPrice;
+        this.discountPercent = discountPercent;
     }
 
     public long getId() {
@@ -35,8 +46,20 @@ public class CartItem {
         return selectedColor;
     }
 
+    public CartItem withQuantity(int newQuantity) {
+        return new CartItem(id, product, newQuantity, selectedSize, selectedColor, unitPrice, discountPercent);
+    }
+
+    public double getUnitPrice() {
+        return unitPrice;
+    }
+
+    public double getDiscountPercent() {
+        return discountPercent;
+    }
+
     public double getTotalPrice() {
-        return product.getPrice() * quantity;
+        return unitPrice * quantity;
     }
 }
 
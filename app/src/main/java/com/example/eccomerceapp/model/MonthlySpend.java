@@ -0,0 +1,26 @@
+package com.example.eccomerceapp.model;
+
+public class MonthlySpend {
+    // "yyyy-MM" in UTC
+    private final String month;
+    private final int orderCount;
+    private final double total;
+
+    public MonthlySpend(String month, int orderCount, double total) {
+        this.month = month;
+        this.orderCount = orderCount;
+        this.total = total;
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+}
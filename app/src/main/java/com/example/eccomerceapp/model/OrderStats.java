@@ -0,0 +1,35 @@
+package com.example.eccomerceapp.model;
+
+public class OrderStats {
+    private final int orderCount;
+    private final double totalSpent;
+    private final double averageTotal;
+    // Null when there are no orders
+    private final Order latestOrder;
+
+    public OrderStats(int orderCount,
+                      double totalSpent,
+                      double averageTotal,
+                      Order latestOrder) {
+        this.orderCount = orderCount;
+        this.totalSpent = totalSpent;
+        this.averageTotal = averageTotal;
+        this.latestOrder = latestOrder;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    public double getTotalSpent() {
+        return totalSpent;
+    }
+
+    public double getAverageTotal() {
+        return averageTotal;
+    }
+
+    public Order getLatestOrder() {
+        return latestOrder;
+    }
+}
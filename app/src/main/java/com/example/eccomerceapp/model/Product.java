@@ -1,6 +1,6 @@
 package com.example.eccomerceapp.model;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Product {
@@ -11,8 +11,8 @@ public class Product {
     private final double discountPercent;
     private final String imageUrl;
     private final long categoryId;
-    private final List<String> sizes;
-    private final List<String> colors;
+    // Null until loaded; list queries leave variants to the detail screen
+    private final ProductVariants variants;
 
     public Product(long id,
                    String name,
@@ -21,8 +21,7 @@ public class Product {
                    double discountPercent,
                    String imageUrl,
                    long categoryId,
-                   String sizesCsv,
-                   String colorsCsv) {
+                   ProductVariants variants) {
         this.id = id;
         this.name = name;
         this.description = description;
@@ -30,39 +29,11 @@ public class Product {
         this.discountPercent = discountPercent;
         this.imageUrl = imageUrl;
         this.categoryId = categoryId;
-        this.sizes = parseCsv(sizesCsv);
-        this.colors = parseCsv(colorsCsv);
+        this.variants = variants;
     }
 
-    private List<String> parseCsv(String csv) {
-        if (csv == null || csv.trim().isEmpty()) {
-            return new ArrayList<>();
-        }
-        
-        // Handle JSON array format like ["S","M","L"]
-        String cleaned = csv.trim();
-        if (cleaned.startsWith("[") && cleaned.endsWith("]")) {
-            try {
-                // Remove brackets and split by comma
-                cleaned = cleaned.substring(1, cleaned.length() - 1);
-            } catch (Exception e) {
-                // Fall through to normal parsing
-            }
-        }
-        
-        String[] parts = cleaned.split(",");
-        List<String> values = new ArrayList<>();
-        for (String part : parts) {
-            String trimmed = part.trim();
-            // Remove quotes if present
-            if (trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
-                trimmed = trimmed.substring(1, trimmed.length() - 1);
-            }
-            if (!trimmed.isEmpty()) {
-                values.add(trimmed);
-            }
-        }
-        return values;
+    public Product withVariants(ProductVariants variants) {
+        return new Product(id, name, description, price, discountPercent, imageUrl, categoryId, variants);
     }
 
     public long getId() {
@@ -104,12 +75,20 @@ public class Product {
         return categoryId;
     }
 
+    public boolean hasVariantsLoaded() {
+        return variants != null;
+    }
+
+    public ProductVariants getVariants() {
+        return variants;
+    }
+
     public List<String> getSizes() {
-        return sizes;
+        return variants != null ? variants.getSizes() : Collections.emptyList();
     }
 
     public List<String> getColors() {
-        return colors;
+        return variants != null ? variants.getColors() : Collections.emptyList();
     }
 }
 
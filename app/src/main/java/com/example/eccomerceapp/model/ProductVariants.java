@@ -0,0 +1,164 @@
+package com.example.eccomerceapp.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The sizes and colors a product comes in, in display order. Values are stored in
+ * canonical form (trimmed, no JSON brackets or quotes), so nothing downstream has
+ * to clean them again.
+ *
+ * <p>Instances are immutable and come from {@link #of}, which shares them: a catalog
+ * repeats a handful of combinations like "S,M,L" across thousands of products, so
+ * equal combinations, lists and values resolve to one object each.
+ */
+public class ProductVariants {
+
+    public static final ProductVariants EMPTY =
+            new ProductVariants(Collections.emptyList(), Collections.emptyList());
+
+    // Caps each pool so an unusual catalog cannot grow it without bound; past the
+    // cap new combinations are still returned, just not shared
+    private static final int POOL_LIMIT = 1024;
+    private static final Object POOL_LOCK = new Object();
+    private static final Map<ProductVariants, ProductVariants> combinationPool = new HashMap<>();
+    private static final Map<List<String>, List<String>> listPool = new HashMap<>();
+    private static final Map<String, String> valuePool = new HashMap<>();
+
+    private final List<String> sizes;
+    private final List<String> colors;
+
+    private ProductVariants(List<String> sizes, List<String> colors) {
+        this.sizes = sizes;
+        this.colors = colors;
+    }
+
+    /** Returns the shared instance for these values, which must already be canonical. */
+    public static ProductVariants of(List<String> sizes, List<String> colors) {
+        if (sizes.isEmpty() && colors.isEmpty()) {
+            return EMPTY;
+        }
+        synchronized (POOL_LOCK) {
+            ProductVariants variants = new ProductVariants(internList(sizes), internList(colors));
+            ProductVariants shared = combinationPool.get(variants);
+            if (shared != null) {
+                return shared;
+            }
+            if (combinationPool.size() < POOL_LIMIT) {
+                combinationPool.put(variants, variants);
+            }
+            return variants;
+        }
+    }
+
+    // Callers hold POOL_LOCK
+    private static List<String> internList(List<String> values) {
+        if (values.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> shared = listPool.get(values);
+        if (shared != null) {
+            return shared;
+        }
+        List<String> copy = new ArrayList<>(values.size());
+        for (String value : values) {
+            copy.add(internValue(value));
+        }
+        List<String> immutable = Collections.unmodifiableList(copy);
+        if (listPool.size() < POOL_LIMIT) {
+            listPool.put(immutable, immutable);
+        }
+        return immutable;
+    }
+
+    private static String internValue(String value) {
+        String shared = valuePool.get(value);
+        if (shared != null) {
+            return shared;
+        }
+        if (valuePool.size() < POOL_LIMIT) {
+            valuePool.put(value, value);
+        }
+        return value;
+    }
+
+    public List<String> getSizes() {
+        return sizes;
+    }
+
+    public List<String> getColors() {
+        return colors;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProductVariants)) {
+            return false;
+        }
+        ProductVariants other = (ProductVariants) o;
+        return sizes.equals(other.sizes) && colors.equals(other.colors);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * sizes.hashCode() + colors.hashCode();
+    }
+
+    /**
+     * Canonicalizes raw variant values as they arrive from the API or legacy CSV
+     * columns. Each value may itself be a comma-separated or JSON-array string;
+     * it is split, stripped of brackets and quotes, and de-duplicated in order.
+     */
+    public static List<String> canonicalize(Iterable<String> rawValues) {
+        Set<String> values = new LinkedHashSet<>();
+        if (rawValues == null) {
+            return new ArrayList<>(values);
+        }
+        for (String raw : rawValues) {
+            if (raw == null) {
+                continue;
+            }
+            int start = 0;
+            int length = raw.length();
+            while (start <= length) {
+                int end = raw.indexOf(',', start);
+                if (end < 0) {
+                    end = length;
+                }
+                String value = stripDecoration(raw, start, end);
+                if (!value.isEmpty() && !value.equals("null")) {
+                    values.add(value);
+                }
+                start = end + 1;
+            }
+        }
+        return new ArrayList<>(values);
+    }
+
+    public static List<String> canonicalizeCsv(String csv) {
+        return canonicalize(Collections.singletonList(csv));
+    }
+
+    // Trims whitespace, brackets and quotes from both ends of raw[start, end)
+    private static String stripDecoration(String raw, int start, int end) {
+        while (start < end && isDecoration(raw.charAt(start))) {
+            start++;
+        }
+        while (end > start && isDecoration(raw.charAt(end - 1))) {
+            end--;
+        }
+        return raw.substring(start, end);
+    }
+
+    private static boolean isDecoration(char c) {
+        return c == '[' || c == ']' || c == '"' || Character.isWhitespace(c);
+    }
+}
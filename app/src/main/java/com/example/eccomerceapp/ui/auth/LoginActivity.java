@@ -75,9 +75,7 @@ public class LoginActivity extends AppCompatActivity {
                     LoginResponse loginResponse = response.body();
                     if (loginResponse.token != null) {
                         String userName = loginResponse.user.fullName != null ? loginResponse.user.fullName : (loginResponse.user.firstName != null ? loginResponse.user.firstName : loginResponse.user.email);
-                        sessionManager.logIn(userName);
-                        sessionManager.saveToken(loginResponse.token);
-                        sessionManager.saveUserEmail(loginResponse.user.email);
+                        sessionManager.logIn(userName, loginResponse.user.email, loginResponse.token);
                         ToastHelper.showToastWithLogo(LoginActivity.this, "Login successful!");
                         Intent intent = new Intent(LoginActivity.this, HomeActivity.class);
                         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
@@ -239,9 +239,7 @@ public class SignupActivity extends AppCompatActivity {
                     RegisterResponse registerResponse = response.body();
                     if (registerResponse.token != null && registerResponse.user != null) {
                         String userName = registerResponse.user.firstName != null ? registerResponse.user.firstName : registerResponse.user.email;
-                        sessionManager.logIn(userName);
-                        sessionManager.saveToken(registerResponse.token);
-                        sessionManager.saveUserEmail(registerResponse.user.email);
+                        sessionManager.logIn(userName, registerResponse.user.email, registerResponse.token);
                         ToastHelper.showToastWithLogo(SignupActivity.this, "Account created successfully!");
                         Intent intent = new Intent(SignupActivity.this, HomeActivity.class);
                         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
@@ -8,29 +8,22 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
-import com.example.eccomerceapp.data.api.ApiClient;
-import com.example.eccomerceapp.data.api.ApiMapper;
-import com.example.eccomerceapp.data.api.ApiService;
-import com.example.eccomerceapp.data.api.model.ApiProduct;
 import com.example.eccomerceapp.databinding.ActivityCartBinding;
 import com.example.eccomerceapp.model.CartItem;
-import com.example.eccomerceapp.model.Product;
 import com.example.eccomerceapp.data.repository.CartRepository;
+import com.example.eccomerceapp.data.local.AppDatabaseHelper;
+import com.example.eccomerceapp.data.repository.ProductRepository;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 public class CartActivity extends AppCompatActivity implements CartAdapter.CartActionListener {
 
     private ActivityCartBinding binding;
     private CartRepository cartRepository;
     private CartAdapter cartAdapter;
-    private ApiService apiService;
+    private ProductRepository productRepository;
     private double currentTotal = 0d;
 
     @Override
@@ -44,7 +37,7 @@ public class CartActivity extends AppCompatActivity implements CartAdapter.CartA
 
         cartRepository = new CartRepository(this);
         cartAdapter = new CartAdapter(this);
-        apiService = ApiClient.getInstance();
+        productRepository = new ProductRepository(this);
 
         binding.cartRecycler.setLayoutManager(new LinearLayoutManager(this));
         binding.cartRecycler.setAdapter(cartAdapter);
@@ -65,105 +58,75 @@ public class CartActivity extends AppCompatActivity implements CartAdapter.CartA
     }
 
     private void loadCartItems() {
-        // Get raw cart data from local DB (productId, quantity, size, color)
-        List<com.example.eccomerceapp.data.local.AppDatabaseHelper.CartRawData> cartDataList = cartRepository.getCartRawData();
-        
-        if (cartDataList == null || cartDataList.isEmpty()) {
-            cartAdapter.submitList(new ArrayList<>());
-            binding.cartEmptyView.setVisibility(View.VISIBLE);
-            binding.cartRecycler.setVisibility(View.GONE);
-            binding.cartTotalPrice.setText(String.format(Locale.getDefault(), "Rs %.2f", 0.0));
-            return;
-        }
+        // Read after buffered quantity changes commit so the list never shows an older quantity.
+        // Rows carry their own price snapshot, so the list and total come straight from the local DB
+        cartRepository.flushQuantities(() -> {
+            cartRepository.getCartItemsAsync(this::showCartItems);
+            cartRepository.getCartTotalAsync(this::showCartTotal);
+        });
+    }
 
-        // Fetch product details from API for each cart item
-        List<CartItem> cartItems = new ArrayList<>();
-        final int[] loadedCount = {0};
-        final int totalItems = cartDataList.size();
-
-        for (com.example.eccomerceapp.data.local.AppDatabaseHelper.CartRawData cartData : cartDataList) {
-            final com.example.eccomerceapp.data.local.AppDatabaseHelper.CartRawData data = cartData; // Final reference for closure
-            apiService.getProductById(data.productId).enqueue(new Callback<ApiProduct>() {
-                @Override
-                public void onResponse(Call<ApiProduct> call, Response<ApiProduct> response) {
-                    if (response.isSuccessful() && response.body() != null) {
-                        Product product = ApiMapper.toProduct(response.body());
-                        CartItem item = new CartItem(
-                            data.cartId,
-                            product,
-                            data.quantity,
-                            data.size != null ? data.size : "",
-                            data.color != null ? data.color : ""
-                        );
-                        synchronized (cartItems) {
-                            cartItems.add(item);
-                            loadedCount[0]++;
-                            
-                            if (loadedCount[0] == totalItems) {
-                                // All products loaded, update UI
-                                runOnUiThread(() -> {
-                                    cartAdapter.submitList(new ArrayList<>(cartItems));
-                                    binding.cartEmptyView.setVisibility(View.GONE);
-                                    binding.cartRecycler.setVisibility(View.VISIBLE);
-                                    
-                                    currentTotal = 0;
-                                    for (CartItem cartItem : cartItems) {
-                                        currentTotal += cartItem.getTotalPrice();
-                                    }
-                                    binding.cartTotalPrice.setText(String.format(Locale.getDefault(), "Rs %.2f", currentTotal));
-                                });
-                            }
-                        }
-                    } else {
-                        loadedCount[0]++;
-                        if (loadedCount[0] == totalItems) {
-                            runOnUiThread(() -> {
-                                if (cartItems.isEmpty()) {
-                                    binding.cartEmptyView.setVisibility(View.VISIBLE);
-                                    binding.cartRecycler.setVisibility(View.GONE);
-                                } else {
-                                    cartAdapter.submitList(new ArrayList<>(cartItems));
-                                }
-                            });
-                        }
-                    }
-                }
+    private void showCartItems(List<CartItem> cartItems) {
+        cartAdapter.submitList(cartItems);
+        boolean empty = cartItems.isEmpty();
+        binding.cartEmptyView.setVisibility(empty ? View.VISIBLE : View.GONE);
+        binding.cartRecycler.setVisibility(empty ? View.GONE : View.VISIBLE);
+    }
 
-                @Override
-                public void onFailure(Call<ApiProduct> call, Throwable t) {
-                    loadedCount[0]++;
-                    if (loadedCount[0] == totalItems) {
-                        runOnUiThread(() -> {
-                            if (cartItems.isEmpty()) {
-                                binding.cartEmptyView.setVisibility(View.VISIBLE);
-                                binding.cartRecycler.setVisibility(View.GONE);
-                            } else {
-                                cartAdapter.submitList(new ArrayList<>(cartItems));
-                            }
-                        });
-                    }
-                }
-            });
-        }
+    private void showCartTotal(double total) {
+        currentTotal = total;
+        binding.cartTotalPrice.setText(String.format(Locale.getDefault(), "Rs %.2f", currentTotal));
     }
 
+    private void revalidatePrices() {
+        // Refresh just the cart's products in batched requests, then one UPDATE reprices every stale row
+        cartRepository.getCartRawDataAsync(rows -> {
+            if (rows.isEmpty()) {
+                return;
+            }
+            List<Long> productIds = new ArrayList<>();
+            for (AppDatabaseHelper.CartRawData row : rows) {
+                productIds.add(row.productId);
+            }
+            productRepository.refreshProductsAsync(productIds, refreshed -> {
+                if (refreshed == 0) {
+                    // Offline or nothing resolved: keep the prices captured on the rows
+                    return;
+                }
+                cartRepository.repriceCartAsync(repriced -> {
+                    if (repriced > 0) {
+                        Toast.makeText(this, "Cart prices were updated", Toast.LENGTH_SHORT).show();
+                        loadCartItems();
+                    }
+                });
+            }, error -> Toast.makeText(this, "Couldn't refresh cart prices", Toast.LENGTH_SHORT).show());
+        });
+    }
 
     @Override
     public void onQuantityChanged(CartItem item, int newQuantity) {
-        cartRepository.updateQuantity(item.getId(), newQuantity);
-        loadCartItems();
+        // Update the on-screen row and total now; the write is buffered and coalesced
+        cartAdapter.updateItem(item.withQuantity(newQuantity));
+        showCartTotal(cartAdapter.getTotalPrice());
+        cartRepository.setQuantityBuffered(item.getId(), newQuantity);
     }
 
     @Override
     public void onRemoveItem(CartItem item) {
-        cartRepository.removeItem(item.getId());
-        loadCartItems();
+        cartRepository.removeItemAsync(item.getId(), removed -> loadCartItems());
     }
 
     @Override
     protected void onResume() {
         super.onResume();
         loadCartItems();
+        revalidatePrices();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        cartRepository.flushQuantities(null);
     }
 }
 
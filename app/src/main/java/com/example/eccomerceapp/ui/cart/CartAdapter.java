@@ -38,6 +38,25 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
         notifyDataSetChanged();
     }
 
+    /** Replaces the row with the same cart id, leaving the rest of the list untouched. */
+    public void updateItem(CartItem item) {
+        for (int i = 0; i < cartItems.size(); i++) {
+            if (cartItems.get(i).getId() == item.getId()) {
+                cartItems.set(i, item);
+                notifyItemChanged(i);
+                return;
+            }
+        }
+    }
+
+    public double getTotalPrice() {
+        double total = 0d;
+        for (CartItem item : cartItems) {
+            total += item.getTotalPrice();
+        }
+        return total;
+    }
+
     @NonNull
     @Override
     public CartViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -55,35 +74,6 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
         return cartItems.size();
     }
 
-    /**
-     * Cleans a value string by removing JSON array brackets and quotes
-     */
-    private String cleanValue(String value) {
-        if (value == null || value.trim().isEmpty()) {
-            return null;
-        }
-        
-        String cleaned = value.trim();
-        
-        // Remove JSON array brackets if present
-        if (cleaned.startsWith("[") && cleaned.endsWith("]")) {
-            cleaned = cleaned.substring(1, cleaned.length() - 1);
-        }
-        
-        // Remove quotes if present (handle multiple quotes)
-        cleaned = cleaned.replaceAll("^\"+|\"+$", "");
-        
-        // Remove any remaining whitespace
-        cleaned = cleaned.trim();
-        
-        // If it's still empty or just brackets/quotes, return null
-        if (cleaned.isEmpty() || cleaned.equals("null") || cleaned.equals("[]")) {
-            return null;
-        }
-        
-        return cleaned;
-    }
-
     class CartViewHolder extends RecyclerView.ViewHolder {
 
         private final ItemCartBinding binding;
@@ -95,22 +85,21 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
 
         void bind(CartItem item) {
             binding.cartProductName.setText(item.getProduct().getName());
-            binding.cartProductPrice.setText(String.format(Locale.getDefault(), "Rs %.2f", item.getProduct().getPrice()));
+            binding.cartProductPrice.setText(String.format(Locale.getDefault(), "Rs %.2f", item.getUnitPrice()));
             
-            // Clean size string to remove JSON brackets and quotes
-            String cleanSize = cleanValue(item.getSelectedSize());
-            if (cleanSize != null && !cleanSize.isEmpty()) {
+            // Variant values are stored canonical; an empty one means none was chosen
+            String size = item.getSelectedSize();
+            if (size != null && !size.isEmpty()) {
                 binding.cartProductSize.setVisibility(View.VISIBLE);
-                binding.cartProductSize.setText("Size: " + cleanSize);
+                binding.cartProductSize.setText("Size: " + size);
             } else {
                 binding.cartProductSize.setVisibility(View.GONE);
             }
             
-            // Clean color string to remove JSON brackets and quotes
-            String cleanColor = cleanValue(item.getSelectedColor());
-            if (cleanColor != null && !cleanColor.isEmpty()) {
+            String color = item.getSelectedColor();
+            if (color != null && !color.isEmpty()) {
                 binding.cartProductColor.setVisibility(View.VISIBLE);
-                binding.cartProductColor.setText("Color: " + cleanColor);
+                binding.cartProductColor.setText("Color: " + color);
             } else {
                 binding.cartProductColor.setVisibility(View.GONE);
             }
@@ -13,11 +13,9 @@ import com.example.eccomerceapp.data.api.model.OrderRequest;
 import com.example.eccomerceapp.data.repository.CartRepository;
 import com.example.eccomerceapp.data.repository.OrderRepository;
 import com.example.eccomerceapp.databinding.ActivityCheckoutBinding;
-import com.example.eccomerceapp.model.CartItem;
 import com.example.eccomerceapp.ui.cart.OrderHistoryActivity;
 import com.google.android.material.textfield.TextInputEditText;
 
-import java.util.List;
 import java.util.Locale;
 
 import retrofit2.Call;
@@ -49,22 +47,16 @@ public class CheckoutActivity extends AppCompatActivity {
 
         orderTotal = getIntent().getDoubleExtra(EXTRA_ORDER_TOTAL, 0d);
         if (orderTotal == 0d) {
-            orderTotal = calculateCartTotal();
+            cartRepository.getCartTotalAsync(total -> {
+                orderTotal = total;
+                binding.checkoutTotal.setText(String.format(Locale.getDefault(), "Rs %.2f", orderTotal));
+            });
         }
         binding.checkoutTotal.setText(String.format(Locale.getDefault(), "Rs %.2f", orderTotal));
 
         binding.buttonPlaceOrder.setOnClickListener(v -> placeOrder());
     }
 
-    private double calculateCartTotal() {
-        double total = 0d;
-        List<CartItem> items = cartRepository.getCartItems();
-        for (CartItem item : items) {
-            total += item.getTotalPrice();
-        }
-        return total;
-    }
-
     private void placeOrder() {
         String name = getText(binding.inputFullName);
         String phone = getText(binding.inputPhone);
@@ -90,15 +82,22 @@ public class CheckoutActivity extends AppCompatActivity {
         orderRequest.city = city;
         orderRequest.total = orderTotal;
 
-        // Save locally first
-        long localOrderId = orderRepository.placeOrder(name, phone, address, city, orderTotal);
-        
-        // Also send to server
+        // Save locally first, then also send to server; one submission at a time
+        binding.buttonPlaceOrder.setEnabled(false);
+        orderRepository.placeOrderAsync(name, phone, address, city, orderTotal,
+                localOrderId -> submitOrder(orderRequest, localOrderId),
+                error -> {
+                    binding.buttonPlaceOrder.setEnabled(true);
+                    Toast.makeText(this, "Unable to save your order. Try again.", Toast.LENGTH_SHORT).show();
+                });
+    }
+
+    private void submitOrder(OrderRequest orderRequest, long localOrderId) {
         apiService.createOrder(orderRequest).enqueue(new Callback<com.example.eccomerceapp.data.api.model.ApiOrder>() {
             @Override
             public void onResponse(Call<com.example.eccomerceapp.data.api.model.ApiOrder> call, Response<com.example.eccomerceapp.data.api.model.ApiOrder> response) {
                 if (response.isSuccessful() && localOrderId > 0) {
-                    cartRepository.clearCart();
+                    cartRepository.clearCartAsync(null);
                     Toast.makeText(CheckoutActivity.this, "Order placed!", Toast.LENGTH_SHORT).show();
                     Intent intent = new Intent(CheckoutActivity.this, OrderHistoryActivity.class);
                     intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
@@ -106,13 +105,14 @@ public class CheckoutActivity extends AppCompatActivity {
                     finish();
                 } else if (localOrderId > 0) {
                     // Order saved locally even if server call failed
-                    cartRepository.clearCart();
+                    cartRepository.clearCartAsync(null);
                     Toast.makeText(CheckoutActivity.this, "Order placed! (Saved locally)", Toast.LENGTH_SHORT).show();
                     Intent intent = new Intent(CheckoutActivity.this, OrderHistoryActivity.class);
                     intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
                     startActivity(intent);
                     finish();
                 } else {
+                    binding.buttonPlaceOrder.setEnabled(true);
                     Toast.makeText(CheckoutActivity.this, "Unable to place order. Try again.", Toast.LENGTH_SHORT).show();
                 }
             }
@@ -121,13 +121,14 @@ public class CheckoutActivity extends AppCompatActivity {
             public void onFailure(Call<com.example.eccomerceapp.data.api.model.ApiOrder> call, Throwable t) {
                 // If server call fails but local save succeeded, still proceed
                 if (localOrderId > 0) {
-                    cartRepository.clearCart();
+                    cartRepository.clearCartAsync(null);
                     Toast.makeText(CheckoutActivity.this, "Order placed! (Saved locally)", Toast.LENGTH_SHORT).show();
                     Intent intent = new Intent(CheckoutActivity.this, OrderHistoryActivity.class);
                     intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
                     startActivity(intent);
                     finish();
                 } else {
+                    binding.buttonPlaceOrder.setEnabled(true);
                     Toast.makeText(CheckoutActivity.this, "Network error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
                 }
             }
@@ -29,6 +29,15 @@ public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHol
         notifyDataSetChanged();
     }
 
+    public void appendList(List<Order> items) {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+        int start = orders.size();
+        orders.addAll(items);
+        notifyItemRangeInserted(start, items.size());
+    }
+
     @NonNull
     @Override
     public OrderViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
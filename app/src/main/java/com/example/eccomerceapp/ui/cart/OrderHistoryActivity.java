@@ -9,14 +9,17 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import com.example.eccomerceapp.data.repository.OrderRepository;
 import com.example.eccomerceapp.databinding.ActivityOrderHistoryBinding;
 import com.example.eccomerceapp.model.Order;
-
-import java.util.List;
+import com.example.eccomerceapp.ui.common.PageLoader;
 
 public class OrderHistoryActivity extends AppCompatActivity {
 
+    private static final int PAGE_SIZE = 30;
+    private static final int PREFETCH_DISTANCE = 8;
+
     private ActivityOrderHistoryBinding binding;
     private OrderRepository orderRepository;
     private OrderAdapter orderAdapter;
+    private PageLoader<Order> pageLoader;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -32,6 +35,24 @@ public class OrderHistoryActivity extends AppCompatActivity {
 
         binding.ordersRecycler.setLayoutManager(new LinearLayoutManager(this));
         binding.ordersRecycler.setAdapter(orderAdapter);
+
+        pageLoader = new PageLoader<>(
+                (lastItem, pageSize, result) ->
+                        orderRepository.getOrdersPageAsync(lastItem, pageSize,
+                                result::onResult, error -> result.onError()),
+                (page, firstPage) -> {
+                    if (firstPage) {
+                        orderAdapter.submitList(page);
+                        boolean isEmpty = page.isEmpty();
+                        binding.ordersEmptyView.setVisibility(isEmpty ? View.VISIBLE : View.GONE);
+                        binding.ordersRecycler.setVisibility(isEmpty ? View.GONE : View.VISIBLE);
+                    } else {
+                        orderAdapter.appendList(page);
+                    }
+                },
+                PAGE_SIZE,
+                PREFETCH_DISTANCE);
+        pageLoader.attachTo(binding.ordersRecycler);
     }
 
     @Override
@@ -43,14 +64,8 @@ public class OrderHistoryActivity extends AppCompatActivity {
     private void loadOrders() {
         // First sync orders from server to get latest statuses
         orderRepository.syncOrdersFromServer(() -> {
-            // After syncing, load from local database and display
-            runOnUiThread(() -> {
-                List<Order> orders = orderRepository.getOrders();
-                orderAdapter.submitList(orders);
-                boolean isEmpty = orders.isEmpty();
-                binding.ordersEmptyView.setVisibility(isEmpty ? View.VISIBLE : View.GONE);
-                binding.ordersRecycler.setVisibility(isEmpty ? View.GONE : View.VISIBLE);
-            });
+            // After syncing, page from the local database and display
+            runOnUiThread(() -> pageLoader.reload());
         });
     }
 }
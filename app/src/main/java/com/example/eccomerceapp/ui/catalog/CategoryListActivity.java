@@ -11,8 +11,6 @@ import com.example.eccomerceapp.databinding.ActivityCategoryListBinding;
 import com.example.eccomerceapp.model.Category;
 import com.example.eccomerceapp.ui.home.CategoryAdapter;
 
-import java.util.List;
-
 public class CategoryListActivity extends AppCompatActivity implements CategoryAdapter.OnCategoryClickListener {
 
     private ActivityCategoryListBinding binding;
@@ -38,8 +36,7 @@ public class CategoryListActivity extends AppCompatActivity implements CategoryA
     }
 
     private void loadCategories() {
-        List<Category> categories = productRepository.loadCategories();
-        categoryAdapter.submitList(categories);
+        productRepository.loadCategoriesAsync(categoryAdapter::submitList);
     }
 
     @Override
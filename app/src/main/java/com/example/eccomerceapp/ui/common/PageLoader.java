@@ -0,0 +1,117 @@
+package com.example.eccomerceapp.ui.common;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.List;
+
+/**
+ * Loads a list one keyset page at a time and fetches the next page when the user
+ * scrolls within {@code prefetchDistance} items of the end.
+ */
+public class PageLoader<T> extends RecyclerView.OnScrollListener {
+
+    public interface PageSource<T> {
+        /**
+         * Loads up to {@code pageSize} items that come after {@code lastItem} (null for
+         * the first page) and hands them to {@code result} on the main thread, or
+         * reports a failed load through {@link PageResult#onError()}.
+         */
+        void loadPage(@Nullable T lastItem, int pageSize, PageResult<T> result);
+    }
+
+    public interface PageResult<T> {
+        void onResult(List<T> page);
+
+        /** The page could not be loaded; the next scroll or reload tries again. */
+        void onError();
+    }
+
+    public interface PageConsumer<T> {
+        void onPageLoaded(List<T> page, boolean firstPage);
+    }
+
+    private final PageSource<T> source;
+    private final PageConsumer<T> consumer;
+    private final int pageSize;
+    private final int prefetchDistance;
+
+    private T lastItem;
+    private boolean firstPage = true;
+    private boolean endReached;
+    private boolean loading;
+    // Bumped on reload so pages requested before it are dropped
+    private int generation;
+
+    public PageLoader(PageSource<T> source, PageConsumer<T> consumer, int pageSize, int prefetchDistance) {
+        this.source = source;
+        this.consumer = consumer;
+        this.pageSize = pageSize;
+        this.prefetchDistance = prefetchDistance;
+    }
+
+    public void attachTo(RecyclerView recyclerView) {
+        recyclerView.removeOnScrollListener(this);
+        recyclerView.addOnScrollListener(this);
+    }
+
+    /** Drops the current position and loads the first page again. */
+    public void reload() {
+        generation++;
+        lastItem = null;
+        firstPage = true;
+        endReached = false;
+        loading = false;
+        loadNextPage();
+    }
+
+    public void loadNextPage() {
+        if (endReached || loading) {
+            return;
+        }
+        loading = true;
+        int requestGeneration = generation;
+        source.loadPage(lastItem, pageSize, new PageResult<T>() {
+            @Override
+            public void onResult(List<T> page) {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                loading = false;
+                if (page.size() < pageSize) {
+                    endReached = true;
+                }
+                if (!page.isEmpty()) {
+                    lastItem = page.get(page.size() - 1);
+                }
+                boolean wasFirstPage = firstPage;
+                firstPage = false;
+                consumer.onPageLoaded(page, wasFirstPage);
+            }
+
+            @Override
+            public void onError() {
+                if (requestGeneration == generation) {
+                    loading = false;
+                }
+            }
+        });
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (dy <= 0 || endReached || loading) {
+            return;
+        }
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (!(layoutManager instanceof LinearLayoutManager)) {
+            return;
+        }
+        int lastVisible = ((LinearLayoutManager) layoutManager).findLastVisibleItemPosition();
+        if (lastVisible >= layoutManager.getItemCount() - prefetchDistance) {
+            loadNextPage();
+        }
+    }
+}
@@ -18,20 +18,16 @@ import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
 import com.example.eccomerceapp.R;
-import com.example.eccomerceapp.data.api.ApiClient;
-import com.example.eccomerceapp.data.api.ApiMapper;
-import com.example.eccomerceapp.data.api.ApiService;
 import com.example.eccomerceapp.data.local.SessionManager;
 import com.example.eccomerceapp.data.repository.CartRepository;
-import com.example.eccomerceapp.data.repository.FavoritesRepository;
+import com.example.eccomerceapp.data.repository.CatalogSyncEngine;
+import com.example.eccomerceapp.data.repository.MaintenanceScheduler;
 import com.example.eccomerceapp.data.repository.OrderRepository;
+import com.example.eccomerceapp.data.repository.ProductRepository;
 import com.example.eccomerceapp.databinding.ActivityHomeBinding;
 import com.example.eccomerceapp.model.Category;
 import com.example.eccomerceapp.model.Product;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
 import com.example.eccomerceapp.ui.cart.CartActivity;
 import com.example.eccomerceapp.ui.cart.OrderHistoryActivity;
 import com.example.eccomerceapp.ui.catalog.CategoryListActivity;
@@ -43,6 +39,7 @@ import com.example.eccomerceapp.ui.wallet.WalletActivity;
 import com.google.android.material.badge.BadgeDrawable;
 import com.google.android.material.navigation.NavigationView;
 
+import java.util.Collections;
 import java.util.List;
 
 public class HomeActivity extends AppCompatActivity implements
@@ -52,12 +49,16 @@ public class HomeActivity extends AppCompatActivity implements
 
     private ActivityHomeBinding binding;
     private CartRepository cartRepository;
+    private ProductRepository productRepository;
+    private CatalogSyncEngine catalogSyncEngine;
+    private final CartRepository.CartCountObserver cartCountObserver = this::showCartBadge;
     private SessionManager sessionManager;
-    private ApiService apiService;
 
     private CategoryAdapter categoryAdapter;
     private ProductAdapter productAdapter;
     private Long selectedCategoryId = null;
+    // The local catalog starts empty, so Home reads "loading" rather than "empty" until a sync settles
+    private boolean catalogSyncPending = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -66,30 +67,27 @@ public class HomeActivity extends AppCompatActivity implements
         setContentView(binding.getRoot());
 
         cartRepository = new CartRepository(this);
+        productRepository = new ProductRepository(this);
+        catalogSyncEngine = new CatalogSyncEngine(this);
         sessionManager = new SessionManager(this);
-        apiService = ApiClient.getInstance();
 
         setupDrawerHeader();
         setupRecyclerViews();
         setupListeners();
 
+        // Writes run in order on the database writer thread
         // Clear all cart entries immediately
-        cartRepository.clearAllCartEntries();
-        // Also clean up orphaned cart entries (products deleted from admin panel)
-        cartRepository.cleanupOrphanedEntries();
-        
-        // Clean up orphaned favorites (products deleted from admin panel)
-        FavoritesRepository favoritesRepository = new FavoritesRepository(this);
-        favoritesRepository.cleanupOrphanedFavorites();
-        
+        cartRepository.clearAllCartEntriesAsync(null);
+
         // Clear all orders from local database immediately
         OrderRepository orderRepository = new OrderRepository(this);
-        orderRepository.clearAllOrders();
+        orderRepository.clearAllOrdersAsync(null);
 
         loadCategories();
         loadAllProductsForRecommended();
-        // Force update cart badge after clearing
-        updateCartBadge();
+
+        // ANALYZE and vacuum wait until after first paint
+        new MaintenanceScheduler(this).scheduleAfterFirstFrame();
     }
 
     private void setupDrawerHeader() {
@@ -160,46 +158,16 @@ public class HomeActivity extends AppCompatActivity implements
     }
 
     private void loadCategories() {
-        apiService.getCategories().enqueue(new Callback<List<com.example.eccomerceapp.data.api.model.ApiCategory>>() {
-            @Override
-            public void onResponse(Call<List<com.example.eccomerceapp.data.api.model.ApiCategory>> call,
-                                   Response<List<com.example.eccomerceapp.data.api.model.ApiCategory>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    List<Category> categories = ApiMapper.toCategoryList(response.body());
-                    categoryAdapter.submitList(categories);
-                } else {
-                    Toast.makeText(HomeActivity.this, "Failed to load categories", Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<List<com.example.eccomerceapp.data.api.model.ApiCategory>> call, Throwable t) {
-                Toast.makeText(HomeActivity.this, "Network error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
+        productRepository.loadCategoriesAsync(categoryAdapter::submitList);
     }
 
     private void loadAllProductsForRecommended() {
         // Load all products randomly for recommended section
-        apiService.getProducts(null, null, null, null).enqueue(
-                new Callback<List<com.example.eccomerceapp.data.api.model.ApiProduct>>() {
-                    @Override
-                    public void onResponse(Call<List<com.example.eccomerceapp.data.api.model.ApiProduct>> call,
-                                           Response<List<com.example.eccomerceapp.data.api.model.ApiProduct>> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            // Shuffle products for random display
-                            List<Product> products = ApiMapper.toProductListShuffled(response.body());
-                            productAdapter.submitList(products);
-                        } else {
-                            Toast.makeText(HomeActivity.this, "Failed to load products", Toast.LENGTH_SHORT).show();
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<List<com.example.eccomerceapp.data.api.model.ApiProduct>> call, Throwable t) {
-                        Toast.makeText(HomeActivity.this, "Network error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-                    }
-                });
+        productRepository.loadProductsAsync(null, products -> {
+            // Shuffle products for random display
+            Collections.shuffle(products);
+            showProducts(products);
+        });
     }
     
     private void loadProducts(Long categoryId) {
@@ -207,25 +175,21 @@ public class HomeActivity extends AppCompatActivity implements
             loadAllProductsForRecommended();
             return;
         }
-        
-        apiService.getProducts(categoryId, null, null, null).enqueue(
-                new Callback<List<com.example.eccomerceapp.data.api.model.ApiProduct>>() {
-                    @Override
-                    public void onResponse(Call<List<com.example.eccomerceapp.data.api.model.ApiProduct>> call,
-                                           Response<List<com.example.eccomerceapp.data.api.model.ApiProduct>> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            List<Product> products = ApiMapper.toProductList(response.body());
-                            productAdapter.submitList(products);
-                        } else {
-                            Toast.makeText(HomeActivity.this, "Failed to load products", Toast.LENGTH_SHORT).show();
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<List<com.example.eccomerceapp.data.api.model.ApiProduct>> call, Throwable t) {
-                        Toast.makeText(HomeActivity.this, "Network error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-                    }
-                });
+        productRepository.loadProductsAsync(categoryId, this::showProducts);
+    }
+
+    private void showProducts(List<Product> products) {
+        productAdapter.submitList(products);
+        updateProductsStatus();
+    }
+
+    private void updateProductsStatus() {
+        if (productAdapter.getItemCount() > 0) {
+            binding.productsStatusText.setVisibility(View.GONE);
+            return;
+        }
+        binding.productsStatusText.setText(catalogSyncPending ? R.string.products_loading : R.string.products_empty);
+        binding.productsStatusText.setVisibility(View.VISIBLE);
     }
 
     private void performSearch(String keyword) {
@@ -238,24 +202,21 @@ public class HomeActivity extends AppCompatActivity implements
             return;
         }
         // Search across all products regardless of category filter
-        apiService.getProducts(null, null, keyword, null).enqueue(
-                new Callback<List<com.example.eccomerceapp.data.api.model.ApiProduct>>() {
-                    @Override
-                    public void onResponse(Call<List<com.example.eccomerceapp.data.api.model.ApiProduct>> call,
-                                           Response<List<com.example.eccomerceapp.data.api.model.ApiProduct>> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            List<Product> results = ApiMapper.toProductList(response.body());
-                            productAdapter.submitList(results);
-                        } else {
-                            Toast.makeText(HomeActivity.this, "Search failed", Toast.LENGTH_SHORT).show();
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<List<com.example.eccomerceapp.data.api.model.ApiProduct>> call, Throwable t) {
-                        Toast.makeText(HomeActivity.this, "Network error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-                    }
-                });
+        productRepository.searchProductsAsync(keyword, this::showProducts);
+    }
+
+    private void syncCatalog() {
+        // Screens read the local catalog; pull server changes into it and refresh if anything moved
+        catalogSyncPending = true;
+        catalogSyncEngine.sync(productsChanged -> {
+            catalogSyncPending = false;
+            loadCategories();
+            if (productsChanged) {
+                loadProducts(selectedCategoryId);
+            } else {
+                updateProductsStatus();
+            }
+        });
     }
 
     private void navigateToCart() {
@@ -309,7 +270,20 @@ public class HomeActivity extends AppCompatActivity implements
         } else {
             loadAllProductsForRecommended();
         }
-        updateCartBadge();
+        syncCatalog();
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        // Cached between resumes; re-queried only after a cart or product write
+        cartRepository.observeCartCount(cartCountObserver);
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        cartRepository.removeCartCountObserver(cartCountObserver);
     }
 
     private void startProfileAnimations(View header) {
@@ -327,8 +301,7 @@ public class HomeActivity extends AppCompatActivity implements
         }
     }
 
-    private void updateCartBadge() {
-        int count = cartRepository.getCartCount();
+    private void showCartBadge(int count) {
         if (count > 0) {
             BadgeDrawable badge = binding.bottomNavigation.getOrCreateBadge(R.id.menu_cart);
             badge.setVisible(true);
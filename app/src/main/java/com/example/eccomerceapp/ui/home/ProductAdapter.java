@@ -31,6 +31,8 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
     public ProductAdapter(OnProductClickListener listener, Context context) {
         this.listener = listener;
         this.favoritesRepository = new FavoritesRepository(context);
+        // Rebind once the favorite ids are in memory so hearts reflect saved state
+        favoritesRepository.loadFavoriteIds(this::notifyDataSetChanged);
     }
 
     public void submitList(List<Product> items) {
@@ -41,6 +43,15 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
         notifyDataSetChanged();
     }
 
+    public void appendList(List<Product> items) {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+        int start = products.size();
+        products.addAll(items);
+        notifyItemRangeInserted(start, items.size());
+    }
+
     @NonNull
     @Override
     public ProductViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -124,10 +135,10 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
                 // Update icon based on new state
                 if (newFavoriteState) {
                     binding.favoriteButton.setImageResource(R.drawable.ic_heart);
-                    favoritesRepository.addFavorite(product.getId());
+                    favoritesRepository.addFavorite(product.getId(), ProductAdapter.this::notifyDataSetChanged);
                 } else {
                     binding.favoriteButton.setImageResource(R.drawable.ic_heart_outline);
-                    favoritesRepository.removeFavorite(product.getId());
+                    favoritesRepository.removeFavorite(product.getId(), ProductAdapter.this::notifyDataSetChanged);
                 }
                 binding.favoriteButton.setColorFilter(ContextCompat.getColor(binding.getRoot().getContext(), R.color.primary_orange));
             });
@@ -15,11 +15,14 @@ import com.example.eccomerceapp.data.api.ApiMapper;
 import com.example.eccomerceapp.data.api.ApiService;
 import com.example.eccomerceapp.data.api.model.ApiProduct;
 import com.example.eccomerceapp.data.repository.CartRepository;
+import com.example.eccomerceapp.data.repository.ProductRepository;
 import com.example.eccomerceapp.databinding.ActivityProductDetailBinding;
 import com.example.eccomerceapp.databinding.DialogImageZoomBinding;
 import com.example.eccomerceapp.model.Product;
+import com.example.eccomerceapp.model.ProductVariants;
 import com.google.android.material.chip.Chip;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 
@@ -34,6 +37,7 @@ public class ProductDetailActivity extends AppCompatActivity {
     private ActivityProductDetailBinding binding;
     private ApiService apiService;
     private CartRepository cartRepository;
+    private ProductRepository productRepository;
     private Product product;
 
     @Override
@@ -51,6 +55,7 @@ public class ProductDetailActivity extends AppCompatActivity {
 
         apiService = ApiClient.getInstance();
         cartRepository = new CartRepository(this);
+        productRepository = new ProductRepository(this);
 
         long productId = getIntent().getLongExtra(EXTRA_PRODUCT_ID, -1);
         if (productId == -1) {
@@ -63,11 +68,27 @@ public class ProductDetailActivity extends AppCompatActivity {
     }
 
     private void loadProduct(long productId) {
+        // The synced catalog usually has it; only go to the network on a miss
+        productRepository.findProductAsync(productId, localProduct -> {
+            if (localProduct != null) {
+                product = localProduct;
+                bindProductData();
+            } else {
+                fetchProduct(productId);
+            }
+        });
+    }
+
+    private void fetchProduct(long productId) {
         apiService.getProductById(productId).enqueue(new Callback<ApiProduct>() {
             @Override
             public void onResponse(Call<ApiProduct> call, Response<ApiProduct> response) {
                 if (response.isSuccessful() && response.body() != null) {
                     product = ApiMapper.toProduct(response.body());
+                    // Newer than the last catalog sync; store it so add-to-cart satisfies the foreign key
+                    productRepository.saveProductsAsync(Collections.singletonList(response.body()), null,
+                            error -> Toast.makeText(ProductDetailActivity.this,
+                                    "Couldn't save this product on the device", Toast.LENGTH_SHORT).show());
                     bindProductData();
                 } else {
                     Toast.makeText(ProductDetailActivity.this, "Product not found", Toast.LENGTH_SHORT).show();
@@ -102,8 +123,29 @@ public class ProductDetailActivity extends AppCompatActivity {
             binding.productHeroImage.setImageResource(android.R.drawable.ic_menu_gallery);
         }
 
-        List<String> sizes = product.getSizes();
-        List<String> colors = product.getColors();
+        // Hide store section (not in admin panel)
+        binding.storeSection.setVisibility(View.GONE);
+        
+        // Set image click listener
+        binding.productHeroImage.setOnClickListener(v -> showImageZoom(imageUrl));
+
+        if (product.hasVariantsLoaded()) {
+            bindVariants(product.getVariants());
+        } else {
+            // Catalog rows come without variants; read them only now that the chips are needed
+            long productId = product.getId();
+            productRepository.loadVariantsAsync(productId, variants -> {
+                if (product != null && product.getId() == productId) {
+                    product = product.withVariants(variants);
+                    bindVariants(variants);
+                }
+            });
+        }
+    }
+
+    private void bindVariants(ProductVariants variants) {
+        List<String> sizes = variants.getSizes();
+        List<String> colors = variants.getColors();
         
         // Only show sizes if they exist
         if (sizes != null && !sizes.isEmpty()) {
@@ -120,12 +162,6 @@ public class ProductDetailActivity extends AppCompatActivity {
         } else {
             binding.colorSection.setVisibility(View.GONE);
         }
-        
-        // Hide store section (not in admin panel)
-        binding.storeSection.setVisibility(View.GONE);
-        
-        // Set image click listener
-        binding.productHeroImage.setOnClickListener(v -> showImageZoom(imageUrl));
     }
 
     private void populateChipGroup(com.google.android.material.chip.ChipGroup chipGroup, List<String> values) {
@@ -183,8 +219,13 @@ public class ProductDetailActivity extends AppCompatActivity {
     private void addToCart() {
         String selectedSize = getSelectedChipText(binding.sizeChipGroup);
         String selectedColor = getSelectedChipText(binding.colorChipGroup);
-        cartRepository.addToCart(product.getId(), 1, selectedSize, selectedColor);
-        Toast.makeText(this, "Added to cart", Toast.LENGTH_SHORT).show();
+        cartRepository.addToCartAsync(product, 1, selectedSize, selectedColor, cartId -> {
+            if (cartId == -1) {
+                Toast.makeText(this, "Couldn't add to cart", Toast.LENGTH_SHORT).show();
+            } else {
+                Toast.makeText(this, "Added to cart", Toast.LENGTH_SHORT).show();
+            }
+        }, error -> Toast.makeText(this, "Couldn't add to cart", Toast.LENGTH_SHORT).show());
     }
 
     private String getSelectedChipText(com.google.android.material.chip.ChipGroup chipGroup) {
@@ -17,12 +17,11 @@ import com.example.eccomerceapp.data.api.model.ApiUser;
 import com.example.eccomerceapp.data.local.SessionManager;
 import com.example.eccomerceapp.data.repository.OrderRepository;
 import com.example.eccomerceapp.databinding.ActivityProfileBinding;
-import com.example.eccomerceapp.model.Order;
+import com.example.eccomerceapp.model.OrderStats;
 import com.example.eccomerceapp.ui.auth.LoginActivity;
 import com.example.eccomerceapp.ui.cart.OrderHistoryActivity;
 import com.example.eccomerceapp.ui.catalog.ProductListActivity;
 
-import java.util.List;
 import java.util.Locale;
 
 import retrofit2.Call;
@@ -100,12 +99,7 @@ public class ProfileActivity extends AppCompatActivity {
                     binding.profileEmail.setText(user.email != null ? user.email : getString(R.string.profile_email_placeholder));
                     
                     // Update session manager with latest data
-                    if (user.fullName != null) {
-                        sessionManager.logIn(user.fullName);
-                    }
-                    if (user.email != null) {
-                        sessionManager.saveUserEmail(user.email);
-                    }
+                    sessionManager.updateProfile(user.fullName, user.email);
                 } else {
                     // Fallback to session data if API fails
                     binding.profileName.setText(sessionManager.getUserName());
@@ -125,13 +119,12 @@ public class ProfileActivity extends AppCompatActivity {
     }
 
     private void updateStats() {
-        List<Order> orders = orderRepository.getOrders();
-        double total = 0d;
-        for (Order order : orders) {
-            total += order.getTotalAmount();
-        }
-        binding.profileOrderCount.setText(String.valueOf(orders.size()));
-        binding.profileOrderTotal.setText(String.format(Locale.getDefault(), "Rs %.2f", total));
+        orderRepository.getOrderStatsAsync(this::showStats);
+    }
+
+    private void showStats(OrderStats stats) {
+        binding.profileOrderCount.setText(String.valueOf(stats.getOrderCount()));
+        binding.profileOrderTotal.setText(String.format(Locale.getDefault(), "Rs %.2f", stats.getTotalSpent()));
     }
 
     private void showEditProfileDialog() {
@@ -290,8 +283,8 @@ public class ProfileActivity extends AppCompatActivity {
                     ApiUser updatedUser = response.body();
                     
                     // Update session manager
-                    sessionManager.logIn(updatedUser.fullName != null ? updatedUser.fullName : newName);
-                    sessionManager.saveUserEmail(updatedUser.email != null ? updatedUser.email : newEmail);
+                    sessionManager.updateProfile(updatedUser.fullName != null ? updatedUser.fullName : newName,
+                            updatedUser.email != null ? updatedUser.email : newEmail);
 
                     // Update UI
                     binding.profileName.setText(updatedUser.fullName != null ? updatedUser.fullName : newName);
@@ -7,6 +7,7 @@ import android.os.Looper;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.eccomerceapp.data.api.ApiClient;
 import com.example.eccomerceapp.data.local.SessionManager;
 import com.example.eccomerceapp.databinding.ActivitySplashBinding;
 import com.example.eccomerceapp.ui.auth.LoginActivity;
@@ -23,6 +24,9 @@ public class SplashActivity extends AppCompatActivity {
         binding = ActivitySplashBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
+        // Build the HTTP stack while the splash is showing
+        ApiClient.warmUp(this);
+
         SessionManager sessionManager = new SessionManager(this);
         handler.postDelayed(() -> {
             Intent intent = new Intent(this, sessionManager.isLoggedIn() ? HomeActivity.class : LoginActivity.class);
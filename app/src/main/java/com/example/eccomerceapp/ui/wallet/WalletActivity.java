@@ -8,19 +8,26 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.example.eccomerceapp.R;
 import com.example.eccomerceapp.data.repository.OrderRepository;
 import com.example.eccomerceapp.databinding.ActivityWalletBinding;
+import com.example.eccomerceapp.model.MonthlySpend;
 import com.example.eccomerceapp.model.Order;
+import com.example.eccomerceapp.model.OrderStats;
 import com.example.eccomerceapp.ui.cart.OrderHistoryActivity;
 
+import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.List;
 import java.util.Locale;
 
 public class WalletActivity extends AppCompatActivity {
 
+    private static final int MONTHS_SHOWN = 6;
+
     private ActivityWalletBinding binding;
     private OrderRepository orderRepository;
     private final SimpleDateFormat dateFormat =
             new SimpleDateFormat("dd MMM yyyy, HH:mm", Locale.getDefault());
+    private final SimpleDateFormat rollupMonthFormat = new SimpleDateFormat("yyyy-MM", Locale.US);
+    private final SimpleDateFormat monthLabelFormat = new SimpleDateFormat("MMM yyyy", Locale.getDefault());
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -40,25 +47,48 @@ public class WalletActivity extends AppCompatActivity {
     }
 
     private void loadWalletStats() {
-        List<Order> orders = orderRepository.getOrders();
-        double totalSpent = 0d;
-        for (Order order : orders) {
-            totalSpent += order.getTotalAmount();
-        }
-        int orderCount = orders.size();
-        double average = orderCount == 0 ? 0 : totalSpent / orderCount;
+        orderRepository.getOrderStatsAsync(this::showWalletStats);
+        orderRepository.getMonthlySpendAsync(MONTHS_SHOWN, this::showMonthlySpend);
+    }
 
-        binding.walletTotalSpent.setText(String.format(Locale.getDefault(), "Rs %.2f", totalSpent));
-        binding.walletOrdersCount.setText(String.valueOf(orderCount));
-        binding.walletAverage.setText(String.format(Locale.getDefault(), "Rs %.2f", average));
+    private void showWalletStats(OrderStats stats) {
+        binding.walletTotalSpent.setText(String.format(Locale.getDefault(), "Rs %.2f", stats.getTotalSpent()));
+        binding.walletOrdersCount.setText(String.valueOf(stats.getOrderCount()));
+        binding.walletAverage.setText(String.format(Locale.getDefault(), "Rs %.2f", stats.getAverageTotal()));
 
-        if (orderCount > 0) {
-            Order latest = orders.get(0);
+        Order latest = stats.getLatestOrder();
+        if (latest != null) {
             String lastInfo = latest.getStatus() + " • " + dateFormat.format(latest.getCreatedAt());
             binding.walletLastOrder.setText(lastInfo);
         } else {
             binding.walletLastOrder.setText(getString(R.string.wallet_no_orders));
         }
     }
+
+    private void showMonthlySpend(List<MonthlySpend> months) {
+        if (months.isEmpty()) {
+            binding.walletMonthlySpend.setText(getString(R.string.wallet_no_orders));
+            return;
+        }
+        StringBuilder rows = new StringBuilder();
+        for (MonthlySpend month : months) {
+            if (rows.length() > 0) {
+                rows.append('\n');
+            }
+            String orderCount = getResources().getQuantityString(R.plurals.wallet_monthly_orders,
+                    month.getOrderCount(), month.getOrderCount());
+            rows.append(getString(R.string.wallet_monthly_row,
+                    formatMonth(month.getMonth()), month.getTotal(), orderCount));
+        }
+        binding.walletMonthlySpend.setText(rows);
+    }
+
+    private String formatMonth(String month) {
+        try {
+            return monthLabelFormat.format(rollupMonthFormat.parse(month));
+        } catch (ParseException e) {
+            return month;
+        }
+    }
 }
 
@@ -0,0 +1,99 @@
+package com.example.eccomerceapp.data.api;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * A catalog response marked no-cache is stored, revalidated with its ETag on the
+ * next request, and served from the cache when the server answers 304.
+ */
+public class HttpCacheRevalidationTest {
+
+    @Rule
+    public TemporaryFolder cacheDir = new TemporaryFolder();
+
+    private MockWebServer server;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        client = ApiClient.buildHttpClient(cacheDir.getRoot());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+        client.cache().close();
+    }
+
+    @Test
+    public void unchangedCatalogIsServedFromCacheAfter304() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("Cache-Control", "no-cache")
+                .setHeader("ETag", "W/\"categories-7\"")
+                .setBody("[{\"id\":1,\"title\":\"Shoes\"}]"));
+        server.enqueue(new MockResponse()
+                .setResponseCode(304)
+                .setHeader("Cache-Control", "no-cache")
+                .setHeader("ETag", "W/\"categories-7\""));
+
+        String first = get("/api/categories");
+        String second;
+        try (Response response = client.newCall(new Request.Builder().url(server.url("/api/categories")).build()).execute()) {
+            assertEquals(200, response.code());
+            assertNotNull(response.networkResponse());
+            assertEquals(304, response.networkResponse().code());
+            assertNotNull(response.cacheResponse());
+            second = response.body().string();
+        }
+
+        assertEquals(first, second);
+        RecordedRequest initial = server.takeRequest();
+        assertNull(initial.getHeader("If-None-Match"));
+        RecordedRequest revalidation = server.takeRequest();
+        assertEquals("W/\"categories-7\"", revalidation.getHeader("If-None-Match"));
+        // Both requests reached the network; the second was a conditional hit
+        assertEquals(2, client.cache().networkCount());
+        assertEquals(1, client.cache().hitCount());
+    }
+
+    @Test
+    public void changedCatalogReplacesCachedBody() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("Cache-Control", "no-cache")
+                .setHeader("ETag", "W/\"categories-7\"")
+                .setBody("[]"));
+        server.enqueue(new MockResponse()
+                .setHeader("Cache-Control", "no-cache")
+                .setHeader("ETag", "W/\"categories-8\"")
+                .setBody("[{\"id\":2,\"title\":\"Bags\"}]"));
+
+        get("/api/categories");
+        assertEquals("[{\"id\":2,\"title\":\"Bags\"}]", get("/api/categories"));
+
+        server.takeRequest();
+        assertEquals("W/\"categories-7\"", server.takeRequest().getHeader("If-None-Match"));
+    }
+
+    private String get(String path) throws IOException {
+        try (Response response = client.newCall(new Request.Builder().url(server.url(path)).build()).execute()) {
+            return response.body().string();
+        }
+    }
+}
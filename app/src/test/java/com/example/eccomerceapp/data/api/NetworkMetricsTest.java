@@ -0,0 +1,78 @@
+package com.example.eccomerceapp.data.api;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Request;
+
+import static org.junit.Assert.*;
+
+public class NetworkMetricsTest {
+
+    @Before
+    public void setUp() {
+        NetworkMetrics.reset();
+    }
+
+    @After
+    public void tearDown() {
+        NetworkMetrics.reset();
+    }
+
+    @Test
+    public void summaryReportsBucketBoundsForPercentiles() {
+        for (int i = 0; i < 9; i++) {
+            NetworkMetrics.record("GET /api/products", "call", TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        NetworkMetrics.record("GET /api/products", "call", TimeUnit.MILLISECONDS.toNanos(700));
+
+        assertEquals("GET /api/products call: n=10 avg=70ms p50<=1ms p90<=1ms p99<=1000ms max=700ms\n",
+                NetworkMetrics.dump());
+    }
+
+    @Test
+    public void durationsPastTheLastBoundLandInTheOpenBucket() {
+        NetworkMetrics.record("GET /api/categories", "ttfb", TimeUnit.SECONDS.toNanos(8));
+
+        assertEquals("GET /api/categories ttfb: n=1 avg=8000ms p50<=inf p90<=inf p99<=inf max=8000ms\n",
+                NetworkMetrics.dump());
+    }
+
+    @Test
+    public void dumpListsOneSortedLinePerEndpointAndPhase() {
+        NetworkMetrics.record("images.example.com", "call", 0);
+        NetworkMetrics.record("GET /api/products", "dns", 0);
+        NetworkMetrics.record("GET /api/products", "call", 0);
+
+        String[] lines = NetworkMetrics.dump().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("GET /api/products call: "));
+        assertTrue(lines[1].startsWith("GET /api/products dns: "));
+        assertTrue(lines[2].startsWith("images.example.com call: "));
+    }
+
+    @Test
+    public void resetDropsEveryHistogram() {
+        NetworkMetrics.record("GET /api/products", "call", 0);
+        NetworkMetrics.reset();
+
+        assertEquals("", NetworkMetrics.dump());
+    }
+
+    @Test
+    public void apiEndpointsFoldNumericIds() {
+        Request request = new Request.Builder().url("http://10.0.2.2:8003/api/products/42?fields=all").build();
+
+        assertEquals("GET /api/products/{id}", NetworkTimingListener.endpointOf(request));
+    }
+
+    @Test
+    public void otherHostsAreKeyedByHostOnly() {
+        Request request = new Request.Builder().url("https://images.example.com/photo-123.jpg").build();
+
+        assertEquals("images.example.com", NetworkTimingListener.endpointOf(request));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.eccomerceapp.data.local;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FtsQueryTest {
+
+    @Test
+    public void eachTermBecomesALowercasePrefix() {
+        assertEquals("nike* jor*", AppDatabaseHelper.buildPrefixMatchQuery("Nike Jor", null));
+    }
+
+    @Test
+    public void punctuationSplitsTerms() {
+        assertEquals("nike* jordan* 1*", AppDatabaseHelper.buildPrefixMatchQuery("  Nike-Jordan, 1! ", null));
+    }
+
+    @Test
+    public void columnScopesEveryTerm() {
+        assertEquals("name:smart* name:speaker*", AppDatabaseHelper.buildPrefixMatchQuery("smart speaker", "name"));
+    }
+
+    @Test
+    public void operatorsAndQuotesAreSearchedAsPlainTerms() {
+        // Lowercase "or"/"near" are not FTS operators, and quotes never reach the query
+        assertEquals("shoes* or* near*", AppDatabaseHelper.buildPrefixMatchQuery("\"shoes\" OR NEAR", null));
+    }
+
+    @Test
+    public void lettersOutsideAsciiAreKept() {
+        assertEquals("café* crème*", AppDatabaseHelper.buildPrefixMatchQuery("Café Crème", null));
+    }
+
+    @Test
+    public void textWithoutTermsHasNoQuery() {
+        assertNull(AppDatabaseHelper.buildPrefixMatchQuery(null, null));
+        assertNull(AppDatabaseHelper.buildPrefixMatchQuery("", null));
+        assertNull(AppDatabaseHelper.buildPrefixMatchQuery(" - ! ", "name"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.eccomerceapp.data.repository;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class LongHashSetTest {
+
+    @Test
+    public void addReportsWhetherTheValueWasNew() {
+        LongHashSet set = new LongHashSet();
+        assertTrue(set.add(42));
+        assertFalse(set.add(42));
+        assertTrue(set.contains(42));
+        assertFalse(set.contains(43));
+    }
+
+    @Test
+    public void removeReportsWhetherTheValueWasPresent() {
+        LongHashSet set = new LongHashSet();
+        set.add(7);
+        assertTrue(set.remove(7));
+        assertFalse(set.remove(7));
+        assertFalse(set.contains(7));
+    }
+
+    @Test
+    public void sentinelValueIsAnOrdinaryMember() {
+        LongHashSet set = new LongHashSet();
+        assertFalse(set.contains(Long.MIN_VALUE));
+        assertTrue(set.add(Long.MIN_VALUE));
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertTrue(set.remove(Long.MIN_VALUE));
+        assertFalse(set.contains(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void growsPastItsInitialCapacity() {
+        LongHashSet set = new LongHashSet();
+        for (long id = 1; id <= 10_000; id++) {
+            set.add(id);
+        }
+        for (long id = 1; id <= 10_000; id++) {
+            assertTrue(set.contains(id));
+        }
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(10_001));
+    }
+
+    @Test
+    public void removalKeepsTheRestOfAProbeRunReachable() {
+        LongHashSet set = new LongHashSet();
+        // Multiples of a power of two crowd into few slots and form long probe runs
+        for (long i = 0; i < 64; i++) {
+            set.add(i << 20);
+        }
+        for (long i = 0; i < 64; i += 2) {
+            assertTrue(set.remove(i << 20));
+        }
+        for (long i = 0; i < 64; i++) {
+            assertEquals(i % 2 == 1, set.contains(i << 20));
+        }
+    }
+
+    @Test
+    public void matchesHashSetUnderRandomOperations() {
+        Random random = new Random(7);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 50_000; i++) {
+            long value = random.nextInt(2_000) - 1_000;
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+        for (long value = -1_000; value < 1_000; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+    }
+}
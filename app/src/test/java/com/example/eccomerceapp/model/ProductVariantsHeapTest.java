@@ -0,0 +1,79 @@
+package com.example.eccomerceapp.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Heap retained by a 100k-product synthetic catalog, with each product holding its own
+ * freshly parsed size and color lists (as before interning) and with the lists shared
+ * through {@link ProductVariants#of}. Used heap is sampled after forced GCs.
+ */
+public class ProductVariantsHeapTest {
+
+    private static final int PRODUCTS = 100_000;
+    private static final String[] SIZES = {"S,M,L", "S,M,L,XL,XXL", "One Size", "38,39,40,41,42", "XS,S,M"};
+    private static final String[] COLORS = {"Black,Gray,White", "Yellow,White,Black", "Gray,Beige",
+            "Charcoal,White", "Red,Blue,Green,Black"};
+
+    @Test
+    public void sharedVariantsRetainLessHeapThanPerProductLists() throws InterruptedException {
+        long baseline = usedHeapAfterGc();
+        List<Object[]> unshared = buildUnshared();
+        long unsharedBytes = usedHeapAfterGc() - baseline;
+        assertEquals(PRODUCTS, unshared.size());
+        unshared = null;
+
+        baseline = usedHeapAfterGc();
+        List<Product> shared = buildShared();
+        long sharedBytes = usedHeapAfterGc() - baseline;
+        assertEquals(PRODUCTS, shared.size());
+
+        System.out.println(String.format(Locale.US,
+                "%d products: per-product lists %.1f MB, shared variants %.1f MB",
+                PRODUCTS, unsharedBytes / 1048576.0, sharedBytes / 1048576.0));
+        // Each unshared product carries two lists and five or so strings, well over 100 bytes
+        assertTrue(unsharedBytes + " vs " + sharedBytes + " bytes",
+                unsharedBytes - sharedBytes > 100L * PRODUCTS);
+    }
+
+    /** Before: every product keeps its own parsed lists next to it. */
+    private static List<Object[]> buildUnshared() {
+        List<Object[]> catalog = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            catalog.add(new Object[]{
+                    product(i, null),
+                    ProductVariants.canonicalizeCsv(SIZES[i % SIZES.length]),
+                    ProductVariants.canonicalizeCsv(COLORS[i / SIZES.length % COLORS.length])});
+        }
+        return catalog;
+    }
+
+    /** After: the parsed lists are dropped once interned. */
+    private static List<Product> buildShared() {
+        List<Product> catalog = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            catalog.add(product(i, ProductVariants.of(
+                    ProductVariants.canonicalizeCsv(SIZES[i % SIZES.length]),
+                    ProductVariants.canonicalizeCsv(COLORS[i / SIZES.length % COLORS.length]))));
+        }
+        return catalog;
+    }
+
+    private static Product product(int i, ProductVariants variants) {
+        return new Product(i, "Product " + i, "Description", 10, 0, "p.png", 1, variants);
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.eccomerceapp.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ProductVariantsTest {
+
+    @Test
+    public void canonicalizeStripsJsonDecorationAndWhitespace() {
+        assertEquals(Arrays.asList("S", "M", "L"),
+                ProductVariants.canonicalize(Collections.singletonList("[\"S\", \"M\" , \"L\"]")));
+    }
+
+    @Test
+    public void canonicalizeSplitsEachValueAndKeepsFirstOccurrenceOrder() {
+        assertEquals(Arrays.asList("Red", "Blue", "Green"),
+                ProductVariants.canonicalize(Arrays.asList("Red,Blue", " Blue ", "[\"Green\",\"Red\"]")));
+    }
+
+    @Test
+    public void canonicalizeDropsEmptyAndNullValues() {
+        assertEquals(Collections.singletonList("XL"),
+                ProductVariants.canonicalize(Arrays.asList(null, "", "[]", "null", ",,XL,")));
+        assertTrue(ProductVariants.canonicalize(null).isEmpty());
+        assertTrue(ProductVariants.canonicalizeCsv(null).isEmpty());
+    }
+
+    @Test
+    public void canonicalizeCsvReadsLegacyColumns() {
+        assertEquals(Arrays.asList("38", "39", "40"), ProductVariants.canonicalizeCsv("38, 39,40"));
+    }
+
+    @Test
+    public void ofReturnsSharedEmptyInstance() {
+        assertSame(ProductVariants.EMPTY, ProductVariants.of(Collections.emptyList(), new ArrayList<>()));
+    }
+
+    @Test
+    public void equalCombinationsShareOneInstance() {
+        ProductVariants first = ProductVariants.of(Arrays.asList("S", "M"), Arrays.asList("Black"));
+        ProductVariants second = ProductVariants.of(new ArrayList<>(Arrays.asList("S", "M")),
+                new ArrayList<>(Arrays.asList("Black")));
+        assertSame(first, second);
+    }
+
+    @Test
+    public void listsAndValuesAreSharedAcrossCombinations() {
+        ProductVariants black = ProductVariants.of(Arrays.asList("S", "M"), Arrays.asList("Black"));
+        ProductVariants white = ProductVariants.of(Arrays.asList("S", "M"), Arrays.asList(new String("Black"), "White"));
+        assertNotSame(black, white);
+        assertSame(black.getSizes(), white.getSizes());
+        assertSame(black.getColors().get(0), white.getColors().get(0));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void sharedListsAreImmutable() {
+        ProductVariants.of(Arrays.asList("S"), Collections.emptyList()).getSizes().add("M");
+    }
+}
@@ -79,7 +79,28 @@ const migrationStatements = [
       total REAL NOT NULL,
       status TEXT NOT NULL,
       createdAt INTEGER NOT NULL DEFAULT (strftime('%s','now'))
-  );`
+  );`,
+  `CREATE TABLE IF NOT EXISTS product_deletions (
+      productId INTEGER PRIMARY KEY,
+      deletedAt TEXT DEFAULT CURRENT_TIMESTAMP
+  );`,
+  `CREATE INDEX IF NOT EXISTS idx_products_updated_at ON products(updatedAt);`,
+  `CREATE TABLE IF NOT EXISTS catalog_state (
+      id INTEGER PRIMARY KEY CHECK (id = 1),
+      version INTEGER NOT NULL,
+      updatedAt TEXT NOT NULL
+  );`,
+  `INSERT OR IGNORE INTO catalog_state (id, version, updatedAt) VALUES (1, 0, CURRENT_TIMESTAMP);`,
+  // Any product or category write moves the version behind the catalog ETags
+  ...['products', 'categories'].flatMap((table) =>
+    ['INSERT', 'UPDATE', 'DELETE'].map(
+      (event) => `CREATE TRIGGER IF NOT EXISTS trigger_${table}_${event.toLowerCase()}_catalog_version
+      AFTER ${event} ON ${table}
+      BEGIN
+          UPDATE catalog_state SET version = version + 1, updatedAt = CURRENT_TIMESTAMP WHERE id = 1;
+      END;`
+    )
+  )
 ];
 
 function ensureColumn(table, column, definition) {
@@ -1,15 +1,18 @@
 const express = require('express');
 const db = require('../db/connection');
 const authenticate = require('../middleware/auth');
+const { respondIfCatalogFresh } = require('../utils/conditional');
 
 const router = express.Router();
 
 router.get('/', (req, res) => {
+  if (respondIfCatalogFresh(req, res, 'categories')) return;
   const categories = db.prepare('SELECT * FROM categories ORDER BY title ASC').all();
   res.json(categories);
 });
 
 router.get('/:id', (req, res) => {
+  if (respondIfCatalogFresh(req, res, 'category')) return;
   const category = db.prepare('SELECT * FROM categories WHERE id = ?').get(req.params.id);
   if (!category) {
     return res.status(404).json({ message: 'Category not found' });
@@ -4,9 +4,13 @@ const authenticate = require('../middleware/auth');
 const upload = require('../middleware/upload');
 const config = require('../config');
 const { toStoredList, fromStoredList } = require('../utils/serializers');
+const { respondIfCatalogFresh } = require('../utils/conditional');
 
 const router = express.Router();
 
+// Upper bound on ids per batch lookup; clients chunk larger sets
+const MAX_BATCH_IDS = 100;
+
 const parseImages = (value) => {
   if (!value) return [];
   try {
@@ -52,7 +56,8 @@ function buildList(value) {
 }
 
 router.get('/', (req, res) => {
-  const { categoryId, categorySlug, search, featured } = req.query;
+  if (respondIfCatalogFresh(req, res, 'products')) return;
+  const { categoryId, categorySlug, search, featured, ids } = req.query;
   let query = `
     SELECT p.*, c.title as categoryTitle, c.slug as categorySlug
     FROM products p
@@ -72,6 +77,18 @@ router.get('/', (req, res) => {
   if (featured === 'true') {
     filters.push('p.featured = 1');
   }
+  if (ids !== undefined) {
+    // Batch lookup: ?ids=3,7,12 returns whichever of those products still exist
+    const idList = [...new Set(buildList(String(ids)).map(Number))].filter(Number.isInteger);
+    if (!idList.length) {
+      return res.json([]);
+    }
+    if (idList.length > MAX_BATCH_IDS) {
+      return res.status(400).json({ message: `At most ${MAX_BATCH_IDS} ids per request` });
+    }
+    filters.push(`p.id IN (${idList.map(() => '?').join(',')})`);
+    params.push(...idList);
+  }
   if (filters.length) {
     query += ` WHERE ${filters.join(' AND ')}`;
   }
@@ -91,7 +108,38 @@ router.get('/', (req, res) => {
   res.json(records);
 });
 
+// Delta feed for the app's local catalog: products changed since the watermark
+// plus ids deleted since then. Without `since` the full catalog is returned.
+router.get('/changes', (req, res) => {
+  const { since } = req.query;
+  const { syncedAt } = db.prepare('SELECT CURRENT_TIMESTAMP AS syncedAt').get();
+
+  let query = `
+    SELECT p.*, c.title as categoryTitle, c.slug as categorySlug
+    FROM products p
+    LEFT JOIN categories c ON c.id = p.categoryId
+  `;
+  const params = [];
+  if (since) {
+    // >= so rows touched in the same second as the previous sync are not missed
+    query += ' WHERE p.updatedAt >= ?';
+    params.push(since);
+  }
+  query += ' ORDER BY p.updatedAt ASC';
+
+  const products = db.prepare(query).all(...params).map(mapProduct);
+  const deletedIds = since
+    ? db
+        .prepare('SELECT productId FROM product_deletions WHERE deletedAt >= ?')
+        .all(since)
+        .map((row) => row.productId)
+    : [];
+
+  res.json({ products, deletedIds, syncedAt, full: !since });
+});
+
 router.get('/:id', (req, res) => {
+  if (respondIfCatalogFresh(req, res, 'product')) return;
   const product = db
     .prepare(
       `SELECT p.*, c.title as categoryTitle, c.slug as categorySlug
@@ -265,13 +313,18 @@ router.delete('/:id', authenticate, (req, res) => {
     return res.status(404).json({ message: 'Product not found' });
   }
 
-  // Note: Cart items and favorites are stored in Android app's local database,
-  // so they will be cleaned up by the app's cleanupOrphanedCartEntries() method.
-  // The server doesn't maintain these relationships.
-
-  // Delete the product
-  const stmt = db.prepare('DELETE FROM products WHERE id = ?');
-  const result = stmt.run(productId);
+  // Delete the product and leave a tombstone for the app's delta sync; the app's
+  // cart rows and favorites for it go with the local product row
+  const deleteProduct = db.transaction((id) => {
+    const deleted = db.prepare('DELETE FROM products WHERE id = ?').run(id);
+    if (deleted.changes > 0) {
+      db.prepare(
+        'INSERT OR REPLACE INTO product_deletions (productId, deletedAt) VALUES (?, CURRENT_TIMESTAMP)'
+      ).run(id);
+    }
+    return deleted;
+  });
+  const result = deleteProduct(productId);
   
   if (result.changes === 0) {
     return res.status(404).json({ message: 'Product not found' });
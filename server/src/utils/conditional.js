@@ -0,0 +1,39 @@
+const db = require('../db/connection');
+
+// Conditional GET support for catalog reads. The validators come from the
+// single-row catalog_state version, which triggers bump on every product or
+// category write, so an unchanged catalog is answered with a 304 before any
+// rows are read or serialized.
+
+function toHttpDate(timestamp) {
+  if (!timestamp) return null;
+  // SQLite CURRENT_TIMESTAMP is UTC in "YYYY-MM-DD HH:MM:SS" form
+  const date = new Date(`${timestamp.replace(' ', 'T')}Z`);
+  return Number.isNaN(date.getTime()) ? null : date.toUTCString();
+}
+
+// Sets ETag/Last-Modified for the current catalog and ends the request with a
+// 304 when the client's If-None-Match / If-Modified-Since still match.
+// Returns true when the response has been sent.
+function respondIfCatalogFresh(req, res, resource) {
+  const state = db.prepare('SELECT version, updatedAt FROM catalog_state WHERE id = 1').get();
+  if (!state) return false;
+
+  // no-cache lets clients store the body but makes them revalidate on every use
+  res.set('Cache-Control', 'no-cache');
+  res.set('ETag', `W/"${resource}-${state.version}"`);
+  const lastModified = toHttpDate(state.updatedAt);
+  if (lastModified) {
+    res.set('Last-Modified', lastModified);
+  }
+
+  if (req.fresh) {
+    res.status(304).end();
+    return true;
+  }
+  return false;
+}
+
+module.exports = {
+  respondIfCatalogFresh
+};